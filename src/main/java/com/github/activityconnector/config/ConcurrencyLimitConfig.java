@@ -0,0 +1,31 @@
+package com.github.activityconnector.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.controller.ConcurrencyLimitFilter;
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Only the API is limited; health endpoints must keep answering while requests are being shed
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter limiter, ObjectMapper objectMapper,
+            ConcurrencyLimitProperties properties) throws JsonProcessingException {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiter, objectMapper, properties.isEnabled(),
+                        Math.max(1, properties.getRetryAfter().toSeconds())));
+        registration.addUrlPatterns("/api/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
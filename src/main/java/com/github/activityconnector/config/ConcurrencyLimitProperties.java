@@ -0,0 +1,68 @@
+package com.github.activityconnector.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the adaptive concurrency limiter in front of the API, bound from {@code activity.concurrency-limit.*}
+ */
+@ConfigurationProperties(prefix = "activity.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+
+    private Duration window = Duration.ofMillis(250);
+    private int minWindowSamples = 20;
+    private int longWindow = 600;
+
+    private double rttTolerance = 1.5;
+    private double smoothing = 0.2;
+    private double backoffRatio = 0.9;
+
+    private double lowPriorityShare = 0.8;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Duration logInterval = Duration.ofSeconds(10);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getMinWindowSamples() { return minWindowSamples; }
+    public void setMinWindowSamples(int minWindowSamples) { this.minWindowSamples = minWindowSamples; }
+
+    public int getLongWindow() { return longWindow; }
+    public void setLongWindow(int longWindow) { this.longWindow = longWindow; }
+
+    public double getRttTolerance() { return rttTolerance; }
+    public void setRttTolerance(double rttTolerance) { this.rttTolerance = rttTolerance; }
+
+    public double getSmoothing() { return smoothing; }
+    public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+
+    public double getBackoffRatio() { return backoffRatio; }
+    public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+
+    public double getLowPriorityShare() { return lowPriorityShare; }
+    public void setLowPriorityShare(double lowPriorityShare) { this.lowPriorityShare = lowPriorityShare; }
+
+    public Duration getRetryAfter() { return retryAfter; }
+    public void setRetryAfter(Duration retryAfter) { this.retryAfter = retryAfter; }
+
+    public Duration getLogInterval() { return logInterval; }
+    public void setLogInterval(Duration logInterval) { this.logInterval = logInterval; }
+}
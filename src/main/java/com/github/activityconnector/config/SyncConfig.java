@@ -0,0 +1,29 @@
+package com.github.activityconnector.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.net.http.HttpClient;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(SyncProperties.class)
+public class SyncConfig {
+
+    @Bean
+    public HttpClient githubHttpClient(SyncProperties syncProperties) {
+        return HttpClient.newBuilder()
+                .connectTimeout(syncProperties.getRequestTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> claimDueUsersScript() {
+        return RedisScript.of(new ClassPathResource("scripts/claim-due-users.lua"), List.class);
+    }
+}
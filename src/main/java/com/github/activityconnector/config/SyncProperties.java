@@ -0,0 +1,71 @@
+package com.github.activityconnector.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the background upstream sync, bound from {@code activity.sync.*}
+ */
+@ConfigurationProperties(prefix = "activity.sync")
+public class SyncProperties {
+    private boolean enabled = false;
+    private String baseUrl = "https://api.github.com";
+    private String token;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    private int maxConcurrency = 8;
+    private int batchSize = 200;
+    private int writeBatchSize = 50;
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    private Duration minInterval = Duration.ofMinutes(5);
+    private Duration maxInterval = Duration.ofHours(6);
+
+    private int rateLimitReserve = 100;
+    private int maxCommitsPerRepo = 500;
+    private int maxRepoPages = 10;
+    private Duration commitOverlap = Duration.ofDays(7);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getBaseUrl() { return baseUrl; }
+    public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public Duration getRequestTimeout() { return requestTimeout; }
+    public void setRequestTimeout(Duration requestTimeout) { this.requestTimeout = requestTimeout; }
+
+    public int getMaxConcurrency() { return maxConcurrency; }
+    public void setMaxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public int getWriteBatchSize() { return writeBatchSize; }
+    public void setWriteBatchSize(int writeBatchSize) { this.writeBatchSize = writeBatchSize; }
+
+    public Duration getLeaseDuration() { return leaseDuration; }
+    public void setLeaseDuration(Duration leaseDuration) { this.leaseDuration = leaseDuration; }
+
+    public Duration getMinInterval() { return minInterval; }
+    public void setMinInterval(Duration minInterval) { this.minInterval = minInterval; }
+
+    public Duration getMaxInterval() { return maxInterval; }
+    public void setMaxInterval(Duration maxInterval) { this.maxInterval = maxInterval; }
+
+    public int getRateLimitReserve() { return rateLimitReserve; }
+    public void setRateLimitReserve(int rateLimitReserve) { this.rateLimitReserve = rateLimitReserve; }
+
+    public int getMaxCommitsPerRepo() { return maxCommitsPerRepo; }
+    public void setMaxCommitsPerRepo(int maxCommitsPerRepo) { this.maxCommitsPerRepo = maxCommitsPerRepo; }
+
+    public int getMaxRepoPages() { return maxRepoPages; }
+    public void setMaxRepoPages(int maxRepoPages) { this.maxRepoPages = maxRepoPages; }
+
+    public Duration getCommitOverlap() { return commitOverlap; }
+    public void setCommitOverlap(Duration commitOverlap) { this.commitOverlap = commitOverlap; }
+}
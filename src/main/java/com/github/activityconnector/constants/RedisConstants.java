@@ -6,6 +6,8 @@ public final class RedisConstants {
     public static final String REPOS_KEY_PREFIX = "repos:";
     public static final String COMMITS_KEY_PREFIX = "commits:";
     public static final String PAT_KEY_PREFIX = "PAT:";
+    public static final String SYNC_SCHEDULE_KEY = "sync:schedule";
+    public static final String SYNC_STATE_KEY_PREFIX = "sync:user:";
     public static final int PAGE_SIZE = 20;
     
     // Private constructor to prevent instantiation
@@ -0,0 +1,24 @@
+package com.github.activityconnector.controller;
+
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class ConcurrencyLimitController {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitController(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Current concurrency limit, requests in flight and cumulative admission/rejection counters
+     * GET /health/concurrency
+     */
+    @GetMapping("/health/concurrency")
+    public AdaptiveConcurrencyLimiter.Stats concurrency() {
+        return limiter.getStats();
+    }
+}
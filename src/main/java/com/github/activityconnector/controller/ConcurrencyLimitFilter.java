@@ -0,0 +1,104 @@
+package com.github.activityconnector.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.exception.GlobalExceptionHandler;
+import com.github.activityconnector.model.ErrorResponse;
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter;
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.ClientAbortException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds API requests with an immediate 503 once the adaptive concurrency limit is reached,
+ * instead of letting them queue on Tomcat threads and the Redis connection.
+ * Commit pages are cheap and take priority over activity pages.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String COMMITS_PATH = "/api/v1/commits/";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+    private final byte[] rejectionBody;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ObjectMapper objectMapper,
+                                  boolean enabled, long retryAfterSeconds) throws JsonProcessingException {
+        this.limiter = limiter;
+        this.enabled = enabled;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        // Rejections are on the overload path, so the body is serialized once up front
+        this.rejectionBody = objectMapper.writeValueAsBytes(new ErrorResponse(
+                "Service Unavailable", "Server is at capacity, please retry later",
+                retryAfterSeconds, HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire(priorityOf(request))) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        boolean clientAborted = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } catch (IOException | ServletException | RuntimeException e) {
+            clientAborted = isClientAbort(e);
+            throw e;
+        } finally {
+            int status = response.getStatus();
+            if (clientAborted || request.getAttribute(GlobalExceptionHandler.CLIENT_ABORTED_ATTRIBUTE) != null) {
+                // A disconnecting client says nothing about server capacity
+                limiter.onIgnore();
+            } else if (!completed || status >= 500) {
+                limiter.onDropped();
+            } else if (status >= 400) {
+                // Auth failures, rate limiting and bad input return before the expensive reads
+                limiter.onIgnore();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static boolean isClientAbort(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ClientAbortException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Priority priorityOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(COMMITS_PATH) ? Priority.HIGH : Priority.LOW;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+}
@@ -1,17 +1,23 @@
 package com.github.activityconnector.controller;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.activityconnector.exception.AuthenticationException;
-import com.github.activityconnector.model.GitHubCommit;
-import com.github.activityconnector.model.PaginatedResponse;
-import com.github.activityconnector.model.UserActivityResponse;
+import com.github.activityconnector.exception.InvalidRequestException;
+import com.github.activityconnector.model.FieldProjection;
+import com.github.activityconnector.model.StreamingPage;
 import com.github.activityconnector.service.RedisDataService;
 import com.github.activityconnector.constants.RedisConstants;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -19,21 +25,26 @@ public class GitHubActivityController {
     private static final Logger logger = LoggerFactory.getLogger(GitHubActivityController.class);
 
     private final RedisDataService redisDataService;
+    private final JsonFactory jsonFactory;
 
-    public GitHubActivityController(RedisDataService redisDataService) {
+    public GitHubActivityController(RedisDataService redisDataService, ObjectMapper objectMapper) {
         this.redisDataService = redisDataService;
+        this.jsonFactory = objectMapper.getFactory();
     }
 
     /**
      * Get user activity (repositories) from Redis only
-     * GET /api/v1/activity/{username}?page=0
+     * GET /api/v1/activity/{username}?page=0&fields=name,recentCommits.message&includeCommits=5
      * Page size is fixed at 20 items per page
      */
     @GetMapping("/activity/{username}")
-    public ResponseEntity<PaginatedResponse<com.github.activityconnector.model.GitHubRepository>> getUserActivity(
+    public void getUserActivity(
             @PathVariable String username,
             @RequestParam(defaultValue = "0") int page,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String includeCommits,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            HttpServletResponse response) throws IOException {
         
         final int PAGE_SIZE = 20;
         logger.info("Received request for user activity: {} (page={}, size={})", username, page, PAGE_SIZE);
@@ -47,24 +58,28 @@ public class GitHubActivityController {
             throw new AuthenticationException("Invalid Personal Access Token");
         }
         
+        requireValidPage(page);
+        FieldProjection projection = FieldProjection.forRepositories(fields, includeCommits);
+        
         redisDataService.checkRateLimit(username);
         
-        PaginatedResponse<com.github.activityconnector.model.GitHubRepository> response = 
-            redisDataService.getRepositoriesFromRedis(username, page, PAGE_SIZE);
-        return ResponseEntity.ok(response);
+        StreamingPage body = redisDataService.streamRepositories(username, page, PAGE_SIZE, projection);
+        writeJson(response, body);
     }
 
     /**
      * Get commits for a single repository from Redis only
-     * GET /api/v1/commits/{username}/{repo}?page=0
+     * GET /api/v1/commits/{username}/{repo}?page=0&fields=message,timestamp
      * Page size is fixed at 20 items per page
      */
     @GetMapping("/commits/{username}/{repo}")
-    public ResponseEntity<PaginatedResponse<GitHubCommit>> getRepositoryCommits(
+    public void getRepositoryCommits(
             @PathVariable String username, 
             @PathVariable String repo,
             @RequestParam(defaultValue = "0") int page,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            HttpServletResponse response) throws IOException {
         
         logger.info("Received request for commits: {}/{} (page={}, size={})", username, repo, page, RedisConstants.PAGE_SIZE);
 
@@ -77,10 +92,33 @@ public class GitHubActivityController {
             throw new AuthenticationException("Invalid Personal Access Token");
         }
 
+        requireValidPage(page);
+        FieldProjection projection = FieldProjection.forCommits(fields);
+
         redisDataService.checkRateLimit(username);
         
-        PaginatedResponse<GitHubCommit> response = redisDataService.getCommitsFromRedis(username, repo, page, RedisConstants.PAGE_SIZE);
-        return ResponseEntity.ok(response);
+        StreamingPage body = redisDataService.streamCommits(username, repo, page, RedisConstants.PAGE_SIZE, projection);
+        writeJson(response, body);
+    }
+    
+    /**
+     * Stream a page straight to the response body, adding a Warning header when it was served from the local snapshot
+     */
+    private void writeJson(HttpServletResponse response, StreamingPage body) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (body.isStale()) {
+            response.setHeader(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+        }
+        try (JsonGenerator generator = jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            body.writeTo(generator);
+        }
+    }
+    
+    private static void requireValidPage(int page) {
+        if (page < 0) {
+            throw new InvalidRequestException("page must not be negative");
+        }
     }
     
     /**
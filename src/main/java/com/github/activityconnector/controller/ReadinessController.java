@@ -0,0 +1,35 @@
+package com.github.activityconnector.controller;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class ReadinessController {
+
+    private static final Map<String, String> UP = Map.of("status", "UP");
+    private static final Map<String, String> OUT_OF_SERVICE = Map.of("status", "OUT_OF_SERVICE");
+
+    private final ApplicationAvailability applicationAvailability;
+
+    public ReadinessController(ApplicationAvailability applicationAvailability) {
+        this.applicationAvailability = applicationAvailability;
+    }
+
+    /**
+     * Readiness probe: reports UP only once startup warm-up has finished
+     * GET /health/readiness
+     */
+    @GetMapping("/health/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        if (applicationAvailability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            return ResponseEntity.ok(UP);
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(OUT_OF_SERVICE);
+    }
+}
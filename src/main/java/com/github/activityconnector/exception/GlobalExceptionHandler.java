@@ -1,5 +1,10 @@
 package com.github.activityconnector.exception;
 
+import com.github.activityconnector.model.ErrorResponse;
+import com.github.activityconnector.service.StartupWarmup;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.ClientAbortException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -7,9 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Global exception handler for the application
  */
@@ -18,27 +20,34 @@ public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    /**
+     * Request attribute set when the client disconnected before the response was written
+     */
+    public static final String CLIENT_ABORTED_ATTRIBUTE = GlobalExceptionHandler.class.getName() + ".clientAborted";
+    
+    // Bodies with no per-request content are shared rather than rebuilt for every error
+    private static final ErrorResponse INTERNAL_ERROR_RESPONSE = new ErrorResponse(
+            "Internal Server Error", "An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR.value());
+    
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<Map<String, Object>> handleAuthenticationException(AuthenticationException ex) {
-        logger.warn("Authentication failed: {}", ex.getMessage());
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException ex, HttpServletRequest request) {
+        // The startup warm-up sends these deliberately
+        if (!StartupWarmup.isWarmupRequest(request)) {
+            logger.warn("Authentication failed: {}", ex.getMessage());
+        }
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Authentication Failed");
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.UNAUTHORIZED.value());
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Authentication Failed", ex.getMessage(), HttpStatus.UNAUTHORIZED.value());
         
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
     }
     
     @ExceptionHandler(RateLimitExceededException.class)
-    public ResponseEntity<Map<String, Object>> handleRateLimitExceededException(RateLimitExceededException ex) {
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
         logger.warn("Rate limit exceeded: {}", ex.getMessage());
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Rate Limit Exceeded");
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("retryAfterSeconds", ex.getRetryAfterSeconds());
-        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Rate Limit Exceeded", ex.getMessage(), ex.getRetryAfterSeconds(), HttpStatus.TOO_MANY_REQUESTS.value());
         
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
                 .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
@@ -46,26 +55,38 @@ public class GlobalExceptionHandler {
     }
     
     @ExceptionHandler(DataNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleDataNotFoundException(DataNotFoundException ex) {
+    public ResponseEntity<ErrorResponse> handleDataNotFoundException(DataNotFoundException ex) {
         logger.warn("Data not found: {}", ex.getMessage());
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Data Not Found");
-        errorResponse.put("message", ex.getMessage());
-        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Data Not Found", ex.getMessage(), HttpStatus.NOT_FOUND.value());
         
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
     
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(InvalidRequestException ex) {
+        logger.warn("Invalid request: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                "Bad Request", ex.getMessage(), HttpStatus.BAD_REQUEST.value());
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+    
+    /**
+     * The client went away mid-response, so there is nobody to send an error to
+     */
+    @ExceptionHandler(ClientAbortException.class)
+    public void handleClientAbortException(ClientAbortException ex, HttpServletRequest request, HttpServletResponse response) {
+        logger.debug("Client disconnected: {}", ex.getMessage());
+        request.setAttribute(CLIENT_ABORTED_ATTRIBUTE, Boolean.TRUE);
+    }
+    
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         logger.error("Unexpected error occurred: {}", ex.getMessage(), ex);
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Internal Server Error");
-        errorResponse.put("message", "An unexpected error occurred");
-        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(INTERNAL_ERROR_RESPONSE);
     }
 }
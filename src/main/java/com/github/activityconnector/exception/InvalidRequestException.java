@@ -0,0 +1,15 @@
+package com.github.activityconnector.exception;
+
+/**
+ * Custom exception for malformed request parameters
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.activityconnector.exception;
+
+/**
+ * Custom exception for failed upstream API calls during background sync
+ */
+public class UpstreamSyncException extends RuntimeException {
+
+    private final boolean rateLimited;
+
+    public UpstreamSyncException(String message, boolean rateLimited) {
+        super(message);
+        this.rateLimited = rateLimited;
+    }
+
+    public UpstreamSyncException(String message, Throwable cause) {
+        super(message, cause);
+        this.rateLimited = false;
+    }
+
+    /**
+     * Whether the call was refused because the upstream rate-limit budget is exhausted
+     */
+    public boolean isRateLimited() {
+        return rateLimited;
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.activityconnector.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Error body returned by the exception handler
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"error", "message", "retryAfterSeconds", "status"})
+public class ErrorResponse {
+    private final String error;
+    private final String message;
+    private final Long retryAfterSeconds;
+    private final int status;
+
+    public ErrorResponse(String error, String message, int status) {
+        this(error, message, null, status);
+    }
+
+    public ErrorResponse(String error, String message, Long retryAfterSeconds, int status) {
+        this.error = error;
+        this.message = message;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.status = status;
+    }
+
+    public String getError() { return error; }
+
+    public String getMessage() { return message; }
+
+    public Long getRetryAfterSeconds() { return retryAfterSeconds; }
+
+    public int getStatus() { return status; }
+}
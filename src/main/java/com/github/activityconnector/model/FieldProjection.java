@@ -0,0 +1,137 @@
+package com.github.activityconnector.model;
+
+import com.github.activityconnector.constants.RedisConstants;
+import com.github.activityconnector.exception.InvalidRequestException;
+
+/**
+ * Which repository and commit fields a client asked for via {@code ?fields=} and {@code ?includeCommits=}.
+ * Pagination metadata is always included.
+ */
+public final class FieldProjection {
+    public static final String NAME = "name";
+    public static final String DESCRIPTION = "description";
+    public static final String RECENT_COMMITS = "recentCommits";
+    public static final String MESSAGE = "message";
+    public static final String AUTHOR = "author";
+    public static final String TIMESTAMP = "timestamp";
+
+    private static final String COMMIT_FIELD_PREFIX = RECENT_COMMITS + ".";
+
+    public static final FieldProjection ALL = new FieldProjection(true, true, RedisConstants.PAGE_SIZE, true, true, true);
+
+    private final boolean name;
+    private final boolean description;
+    private final int commitLimit;
+    private final boolean message;
+    private final boolean author;
+    private final boolean timestamp;
+
+    private FieldProjection(boolean name, boolean description, int commitLimit,
+                            boolean message, boolean author, boolean timestamp) {
+        this.name = name;
+        this.description = description;
+        this.commitLimit = commitLimit;
+        this.message = message;
+        this.author = author;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Parse the projection for repository pages
+     * @param fields comma-separated repository fields, with {@code recentCommits.<field>} selecting commit fields
+     * @param includeCommits {@code true}, {@code false} or the number of recent commits per repository
+     */
+    public static FieldProjection forRepositories(String fields, String includeCommits) {
+        boolean name = true, description = true, commits = true;
+        boolean message = true, author = true, timestamp = true;
+
+        if (fields != null && !fields.isBlank()) {
+            name = description = commits = false;
+            boolean anyCommitField = false;
+            message = author = timestamp = false;
+            for (String field : fields.split(",")) {
+                field = field.trim();
+                if (field.startsWith(COMMIT_FIELD_PREFIX)) {
+                    String commitField = field.substring(COMMIT_FIELD_PREFIX.length());
+                    requireCommitField(commitField);
+                    commits = anyCommitField = true;
+                    message |= commitField.equals(MESSAGE);
+                    author |= commitField.equals(AUTHOR);
+                    timestamp |= commitField.equals(TIMESTAMP);
+                } else if (field.equals(NAME)) {
+                    name = true;
+                } else if (field.equals(DESCRIPTION)) {
+                    description = true;
+                } else if (field.equals(RECENT_COMMITS)) {
+                    commits = true;
+                } else {
+                    throw new InvalidRequestException("Unknown field: " + field);
+                }
+            }
+            if (commits && !anyCommitField) {
+                message = author = timestamp = true;
+            }
+        }
+
+        int commitLimit = commits ? parseCommitLimit(includeCommits) : 0;
+        return new FieldProjection(name, description, commitLimit, message, author, timestamp);
+    }
+
+    /**
+     * Parse the projection for commit pages
+     * @param fields comma-separated commit fields
+     */
+    public static FieldProjection forCommits(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        boolean message = false, author = false, timestamp = false;
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            requireCommitField(field);
+            message |= field.equals(MESSAGE);
+            author |= field.equals(AUTHOR);
+            timestamp |= field.equals(TIMESTAMP);
+        }
+        return new FieldProjection(false, false, 0, message, author, timestamp);
+    }
+
+    private static void requireCommitField(String field) {
+        if (!field.equals(MESSAGE) && !field.equals(AUTHOR) && !field.equals(TIMESTAMP)) {
+            throw new InvalidRequestException("Unknown commit field: " + field);
+        }
+    }
+
+    private static int parseCommitLimit(String includeCommits) {
+        if (includeCommits == null || includeCommits.isBlank() || includeCommits.equalsIgnoreCase("true")) {
+            return RedisConstants.PAGE_SIZE;
+        }
+        if (includeCommits.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        try {
+            int limit = Integer.parseInt(includeCommits.trim());
+            if (limit < 0) {
+                throw new InvalidRequestException("includeCommits must not be negative");
+            }
+            return Math.min(limit, RedisConstants.PAGE_SIZE);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("includeCommits must be true, false or a number", e);
+        }
+    }
+
+    public boolean includesName() { return name; }
+
+    public boolean includesDescription() { return description; }
+
+    /**
+     * Number of recent commits to include per repository; 0 omits the {@code recentCommits} field
+     */
+    public int getCommitLimit() { return commitLimit; }
+
+    public boolean includesMessage() { return message; }
+
+    public boolean includesAuthor() { return author; }
+
+    public boolean includesTimestamp() { return timestamp; }
+}
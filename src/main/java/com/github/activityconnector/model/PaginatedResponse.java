@@ -11,6 +11,8 @@ public class PaginatedResponse<T> {
     private int totalPages;
     private boolean hasNext;
     private boolean hasPrevious;
+    // Set when served from the local snapshot because Redis was unavailable
+    private boolean stale;
 
     public PaginatedResponse() {}
 
@@ -79,4 +81,12 @@ public class PaginatedResponse<T> {
     public void setHasPrevious(boolean hasPrevious) {
         this.hasPrevious = hasPrevious;
     }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
 }
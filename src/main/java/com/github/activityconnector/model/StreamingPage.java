@@ -0,0 +1,57 @@
+package com.github.activityconnector.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * A page whose items are written straight to a {@link JsonGenerator} instead of being materialized first.
+ * Produces the same envelope as {@link PaginatedResponse}.
+ */
+public class StreamingPage {
+
+    /**
+     * Writes the page items as elements of the already-open {@code data} array
+     */
+    @FunctionalInterface
+    public interface ItemWriter {
+        void writeItems(JsonGenerator generator) throws IOException;
+    }
+
+    private final ItemWriter items;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final boolean stale;
+
+    public StreamingPage(ItemWriter items, int page, int size, long totalElements, boolean stale) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.stale = stale;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void writeTo(JsonGenerator generator) throws IOException {
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+        items.writeItems(generator);
+        generator.writeEndArray();
+        generator.writeNumberField("page", page);
+        generator.writeNumberField("size", size);
+        generator.writeNumberField("totalElements", totalElements);
+        generator.writeNumberField("totalPages", totalPages);
+        generator.writeBooleanField("hasNext", page < totalPages - 1);
+        generator.writeBooleanField("hasPrevious", page > 0);
+        if (stale) {
+            generator.writeBooleanField("stale", true);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,187 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.model.FieldProjection;
+import com.github.activityconnector.model.GitHubCommit;
+import com.github.activityconnector.model.GitHubRepository;
+import com.github.activityconnector.model.PaginatedResponse;
+import com.github.activityconnector.model.StreamingPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes repository and commit pages to a {@link JsonGenerator}, honouring a {@link FieldProjection}.
+ * Raw Redis values are copied token by token rather than bound to model objects.
+ */
+@Component
+public class ActivityJsonWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ActivityJsonWriter.class);
+
+    private final JsonFactory jsonFactory;
+
+    public ActivityJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Extract name and description from a raw repository value, or null if it is malformed
+     */
+    GitHubRepository readRepositorySummary(byte[] raw) {
+        try (JsonParser parser = jsonFactory.createParser(raw)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.warn("Skipping repository value that is not a JSON object");
+                return null;
+            }
+            GitHubRepository repo = new GitHubRepository();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (FieldProjection.NAME.equals(field)) {
+                    repo.setName(parser.getValueAsString());
+                } else if (FieldProjection.DESCRIPTION.equals(field)) {
+                    repo.setDescription(parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return repo;
+        } catch (IOException e) {
+            logger.warn("Error parsing repository object: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Page of repositories whose commits are raw Redis values, one list per repository in the same order
+     */
+    StreamingPage rawRepositoryPage(List<GitHubRepository> repositories, List<List<byte[]>> rawCommits,
+                                    int page, int size, long totalElements, FieldProjection projection) {
+        return new StreamingPage(generator -> {
+            for (int i = 0; i < repositories.size(); i++) {
+                generator.writeStartObject();
+                writeRepositoryFields(generator, repositories.get(i), projection);
+                if (projection.getCommitLimit() > 0) {
+                    generator.writeArrayFieldStart(FieldProjection.RECENT_COMMITS);
+                    for (byte[] rawCommit : rawCommits.get(i)) {
+                        writeRawCommit(generator, rawCommit, projection);
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+        }, page, size, totalElements, false);
+    }
+
+    StreamingPage rawCommitPage(List<byte[]> rawCommits, int page, int size, long totalElements, FieldProjection projection) {
+        return new StreamingPage(generator -> {
+            for (byte[] rawCommit : rawCommits) {
+                writeRawCommit(generator, rawCommit, projection);
+            }
+        }, page, size, totalElements, false);
+    }
+
+    StreamingPage repositoryPage(PaginatedResponse<GitHubRepository> response, FieldProjection projection) {
+        return new StreamingPage(generator -> {
+            for (GitHubRepository repo : response.getData()) {
+                generator.writeStartObject();
+                writeRepositoryFields(generator, repo, projection);
+                if (projection.getCommitLimit() > 0) {
+                    generator.writeArrayFieldStart(FieldProjection.RECENT_COMMITS);
+                    List<GitHubCommit> commits = repo.getRecentCommits() != null ? repo.getRecentCommits() : List.of();
+                    for (GitHubCommit commit : commits.subList(0, Math.min(commits.size(), projection.getCommitLimit()))) {
+                        writeCommit(generator, commit, projection);
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+        }, response.getPage(), response.getSize(), response.getTotalElements(), response.isStale());
+    }
+
+    StreamingPage commitPage(PaginatedResponse<GitHubCommit> response, FieldProjection projection) {
+        return new StreamingPage(generator -> {
+            for (GitHubCommit commit : response.getData()) {
+                writeCommit(generator, commit, projection);
+            }
+        }, response.getPage(), response.getSize(), response.getTotalElements(), response.isStale());
+    }
+
+    private static void writeRepositoryFields(JsonGenerator generator, GitHubRepository repo, FieldProjection projection) throws IOException {
+        if (projection.includesName()) {
+            generator.writeStringField(FieldProjection.NAME, repo.getName());
+        }
+        if (projection.includesDescription()) {
+            generator.writeStringField(FieldProjection.DESCRIPTION, repo.getDescription());
+        }
+    }
+
+    private static void writeCommit(JsonGenerator generator, GitHubCommit commit, FieldProjection projection) throws IOException {
+        generator.writeStartObject();
+        if (projection.includesMessage()) {
+            generator.writeStringField(FieldProjection.MESSAGE, commit.getMessage());
+        }
+        if (projection.includesAuthor()) {
+            generator.writeStringField(FieldProjection.AUTHOR, commit.getAuthor());
+        }
+        if (projection.includesTimestamp()) {
+            generator.writeStringField(FieldProjection.TIMESTAMP, commit.getTimestamp() != null
+                    ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(commit.getTimestamp())
+                    : null);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Copy the projected scalar fields of a raw commit value. Values that are not JSON objects are skipped;
+     * a commit that turns out to be malformed part-way is closed off with the fields copied so far.
+     */
+    private void writeRawCommit(JsonGenerator generator, byte[] raw, FieldProjection projection) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(raw)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.warn("Skipping commit value that is not a JSON object");
+                return;
+            }
+            generator.writeStartObject();
+            try {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (value.isScalarValue() && includesCommitField(projection, field)) {
+                        generator.writeFieldName(field);
+                        generator.copyCurrentEvent(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (JsonParseException e) {
+                logger.warn("Error parsing commit object: {}", e.getMessage());
+            }
+            generator.writeEndObject();
+        } catch (JsonParseException e) {
+            logger.warn("Error parsing commit object: {}", e.getMessage());
+        }
+    }
+
+    private static boolean includesCommitField(FieldProjection projection, String field) {
+        switch (field) {
+            case FieldProjection.MESSAGE:
+                return projection.includesMessage();
+            case FieldProjection.AUTHOR:
+                return projection.includesAuthor();
+            case FieldProjection.TIMESTAMP:
+                return projection.includesTimestamp();
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.activityconnector.service;
+
+import com.github.activityconnector.config.ConcurrencyLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit for API requests that adapts to observed latency.
+ * Every window the average latency is compared to a long-term average: the limit grows while they agree
+ * and shrinks in proportion once requests start queueing. Failed requests back the limit off multiplicatively.
+ * Low-priority requests may only use part of the limit, so they are shed first.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    // The long-term latency is a plain average over the first windows, before switching to an exponential one
+    private static final int LONG_RTT_WARMUP_WINDOWS = 10;
+
+    public enum Priority {
+        HIGH,
+        LOW
+    }
+
+    public record Stats(int limit, int inFlight, long admitted, long rejectedHigh, long rejectedLow, long dropped,
+                        double shortRttMillis, double longRttMillis) {}
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double longRttAlpha;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final double lowPriorityShare;
+    private final long logIntervalNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedHigh = new LongAdder();
+    private final LongAdder rejectedLow = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // Window and estimator state, guarded by this
+    private double estimatedLimit;
+    private long windowStartNanos = System.nanoTime();
+    private int windowSamples;
+    private long windowRttSumNanos;
+    private int windowMaxInFlight;
+    private int windowDrops;
+    private double longRttNanos;
+    private int longRttWindows;
+    private volatile double shortRttNanos;
+
+    private long lastLogNanos = System.nanoTime();
+    private long rejectedAtLastLog;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.minWindowSamples = properties.getMinWindowSamples();
+        this.longRttAlpha = 2.0 / (properties.getLongWindow() + 1);
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.lowPriorityShare = properties.getLowPriorityShare();
+        this.logIntervalNanos = properties.getLogInterval().toNanos();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admit a request if it fits under the limit for its priority. Never blocks.
+     * Every admitted request must be completed with exactly one of {@link #onSuccess}, {@link #onIgnore}
+     * or {@link #onDropped}.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int max = priority == Priority.HIGH ? limit : Math.max(1, (int) (limit * lowPriorityShare));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                (priority == Priority.HIGH ? rejectedHigh : rejectedLow).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Request completed normally; its latency feeds the limit
+     */
+    public void onSuccess(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        record(current, rttNanos, false);
+    }
+
+    /**
+     * Request completed but its latency says nothing about capacity, e.g. it was rejected before doing any work
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Request failed on the server side, typically a timeout; the limit backs off
+     */
+    public void onDropped() {
+        dropped.increment();
+        int current = inFlight.getAndDecrement();
+        record(current, 0, true);
+    }
+
+    public Stats getStats() {
+        return new Stats(limit, inFlight.get(), admitted.sum(), rejectedHigh.sum(), rejectedLow.sum(), dropped.sum(),
+                shortRttNanos / TimeUnit.MILLISECONDS.toNanos(1), longRttNanos / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private synchronized void record(int inFlightAtRelease, long rttNanos, boolean drop) {
+        if (drop) {
+            windowDrops++;
+        } else {
+            windowSamples++;
+            windowRttSumNanos += rttNanos;
+        }
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtRelease);
+
+        long now = System.nanoTime();
+        if (now - windowStartNanos < windowNanos || (windowDrops == 0 && windowSamples < minWindowSamples)) {
+            return;
+        }
+        updateLimit();
+        logShedding(now);
+
+        windowStartNanos = now;
+        windowSamples = 0;
+        windowRttSumNanos = 0;
+        windowMaxInFlight = 0;
+        windowDrops = 0;
+    }
+
+    private void updateLimit() {
+        double newLimit;
+        if (windowDrops > 0) {
+            newLimit = estimatedLimit * backoffRatio;
+        } else {
+            double shortRtt = (double) windowRttSumNanos / windowSamples;
+            shortRttNanos = shortRtt;
+            updateLongRtt(shortRtt);
+            if (windowMaxInFlight < estimatedLimit / 2) {
+                // Demand is well below the limit, so latency tells us nothing about where the limit should be
+                return;
+            }
+            // Latency at or below the tolerated level grows the limit by about sqrt(limit); queueing shrinks it
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRtt));
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - smoothing) + target * smoothing;
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        int rounded = (int) estimatedLimit;
+        if (rounded != limit) {
+            logger.debug("Concurrency limit {} -> {} (short rtt {}us, long rtt {}us, drops {})", limit, rounded,
+                    (long) shortRttNanos / 1000, (long) longRttNanos / 1000, windowDrops);
+            limit = rounded;
+        }
+    }
+
+    private void updateLongRtt(double shortRtt) {
+        if (longRttWindows < LONG_RTT_WARMUP_WINDOWS) {
+            longRttNanos = (longRttNanos * longRttWindows + shortRtt) / (longRttWindows + 1);
+            longRttWindows++;
+            return;
+        }
+        longRttNanos += (shortRtt - longRttNanos) * longRttAlpha;
+        // After an overload episode the long-term average is inflated; let it fall back quickly
+        if (longRttNanos > 2 * shortRtt) {
+            longRttNanos *= 0.95;
+        }
+    }
+
+    private void logShedding(long now) {
+        if (now - lastLogNanos < logIntervalNanos) {
+            return;
+        }
+        long rejected = rejectedHigh.sum() + rejectedLow.sum();
+        if (rejected > rejectedAtLastLog) {
+            logger.warn("Shed {} requests in the last {}s (limit {}, in flight {})", rejected - rejectedAtLastLog,
+                    TimeUnit.NANOSECONDS.toSeconds(now - lastLogNanos), limit, inFlight.get());
+        }
+        lastLogNanos = now;
+        rejectedAtLastLog = rejected;
+    }
+}
@@ -0,0 +1,238 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.config.SyncProperties;
+import com.github.activityconnector.exception.UpstreamSyncException;
+import com.github.activityconnector.model.GitHubCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal client for a GitHub-compatible REST API.
+ * Every call is conditional when an ETag is known and is charged against the shared {@link UpstreamRateBudget}.
+ */
+@Component
+public class GitHubApiClient {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubApiClient.class);
+
+    private static final int PER_PAGE = 100;
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>;\\s*rel=\"next\"");
+
+    /**
+     * Repository as listed upstream; {@code pushedAt} changes whenever new commits land
+     */
+    public record UpstreamRepository(String name, String description, String pushedAt) {}
+
+    /**
+     * Commit as listed upstream. {@code since} filters on the committer date, which is later than the
+     * author date for rebased or cherry-picked commits, so it is kept next to the stored commit.
+     */
+    public record UpstreamCommit(String sha, GitHubCommit commit, Instant committedAt) {}
+
+    /**
+     * Result of a conditional fetch: {@code notModified} responses carry no body.
+     * {@code complete} is false when pagination stopped at a configured cap before the last page.
+     */
+    public record Fetch<T>(boolean notModified, boolean notFound, T body, String etag, boolean complete) {
+        static <T> Fetch<T> unchanged(String etag) {
+            return new Fetch<>(true, false, null, etag, true);
+        }
+
+        static <T> Fetch<T> missing() {
+            return new Fetch<>(false, true, null, null, true);
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final UpstreamRateBudget rateBudget;
+    private final SyncProperties syncProperties;
+
+    public GitHubApiClient(HttpClient githubHttpClient, ObjectMapper objectMapper,
+                           UpstreamRateBudget rateBudget, SyncProperties syncProperties) {
+        this.httpClient = githubHttpClient;
+        this.objectMapper = objectMapper;
+        this.rateBudget = rateBudget;
+        this.syncProperties = syncProperties;
+    }
+
+    /**
+     * List a user's repositories, most recently pushed first, following pagination. Only the first page is
+     * conditional: any push moves that repository to the top, so an unchanged first page means nothing was pushed.
+     */
+    public Fetch<List<UpstreamRepository>> fetchRepositories(String username, String etag) {
+        String url = syncProperties.getBaseUrl() + "/users/" + encode(username)
+                + "/repos?sort=pushed&direction=desc&per_page=" + PER_PAGE;
+        List<UpstreamRepository> repositories = new ArrayList<>();
+        String firstEtag = null;
+
+        for (int pageNumber = 0; url != null && pageNumber < syncProperties.getMaxRepoPages(); pageNumber++) {
+            HttpResponse<byte[]> response = send(url, pageNumber == 0 ? etag : null);
+            if (response.statusCode() == 304) {
+                return Fetch.unchanged(etag);
+            }
+            if (response.statusCode() == 404) {
+                return Fetch.missing();
+            }
+            if (pageNumber == 0) {
+                firstEtag = response.headers().firstValue("ETag").orElse(null);
+            }
+            for (JsonNode node : readBody(response)) {
+                repositories.add(new UpstreamRepository(
+                        node.path("name").asText(),
+                        node.path("description").asText(null),
+                        node.path("pushed_at").asText(null)));
+            }
+            url = nextLink(response);
+        }
+        return new Fetch<>(false, false, repositories, firstEtag, url == null);
+    }
+
+    /**
+     * List the newest commits of a repository, optionally only those committed at or after {@code since},
+     * following pagination until {@code limit} commits are read. Only the first page is conditional.
+     */
+    public Fetch<List<UpstreamCommit>> fetchCommits(String owner, String repoName, Instant since, String etag, int limit) {
+        StringBuilder firstUrl = new StringBuilder(syncProperties.getBaseUrl())
+                .append("/repos/").append(encode(owner)).append('/').append(encode(repoName))
+                .append("/commits?per_page=").append(Math.min(limit, PER_PAGE));
+        if (since != null) {
+            firstUrl.append("&since=").append(since);
+        }
+
+        String url = firstUrl.toString();
+        List<UpstreamCommit> commits = new ArrayList<>();
+        String firstEtag = null;
+
+        for (int pageNumber = 0; url != null && commits.size() < limit; pageNumber++) {
+            HttpResponse<byte[]> response = send(url, pageNumber == 0 ? etag : null);
+            if (response.statusCode() == 304) {
+                return Fetch.unchanged(etag);
+            }
+            // 409 is returned for empty repositories
+            if (response.statusCode() == 404 || response.statusCode() == 409) {
+                return pageNumber == 0 ? Fetch.missing() : new Fetch<>(false, false, commits, firstEtag, false);
+            }
+            if (pageNumber == 0) {
+                firstEtag = response.headers().firstValue("ETag").orElse(null);
+            }
+            for (JsonNode node : readBody(response)) {
+                if (commits.size() == limit) {
+                    break;
+                }
+                commits.add(readCommit(node, url));
+            }
+            url = nextLink(response);
+        }
+        return new Fetch<>(false, false, commits, firstEtag, url == null);
+    }
+
+    private static UpstreamCommit readCommit(JsonNode node, String url) {
+        JsonNode commit = node.path("commit");
+        String author = node.path("author").path("login").asText(null);
+        if (author == null) {
+            author = commit.path("author").path("name").asText(null);
+        }
+        String authoredAt = commit.path("author").path("date").asText(null);
+        String committedAt = commit.path("committer").path("date").asText(authoredAt);
+        try {
+            return new UpstreamCommit(
+                    node.path("sha").asText(null),
+                    new GitHubCommit(
+                            commit.path("message").asText(null),
+                            author,
+                            authoredAt != null ? LocalDateTime.ofInstant(Instant.parse(authoredAt), ZoneOffset.UTC) : null),
+                    committedAt != null ? Instant.parse(committedAt) : null);
+        } catch (DateTimeParseException e) {
+            throw new UpstreamSyncException("Malformed commit date from " + url, e);
+        }
+    }
+
+    private HttpResponse<byte[]> send(String url, String etag) {
+        if (!rateBudget.tryAcquire()) {
+            throw new UpstreamSyncException("Upstream rate-limit budget exhausted", true);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(syncProperties.getRequestTimeout())
+                .header("Accept", "application/vnd.github+json")
+                .GET();
+        if (syncProperties.getToken() != null && !syncProperties.getToken().isBlank()) {
+            request.header("Authorization", "Bearer " + syncProperties.getToken());
+        }
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UpstreamSyncException("Upstream request failed: " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamSyncException("Upstream request interrupted: " + url, e);
+        }
+        rateBudget.update(response.headers());
+
+        int status = response.statusCode();
+        if (status == 429 || (status == 403 && isRateLimitResponse(response))) {
+            long retryAfterSeconds = response.headers().firstValueAsLong("Retry-After").orElse(60);
+            long resetAtMillis = rateBudget.getResetAtMillis();
+            rateBudget.exhaust(Math.max(resetAtMillis, System.currentTimeMillis() + retryAfterSeconds * 1000));
+            throw new UpstreamSyncException("Upstream rate limit hit: " + url, true);
+        }
+        if (status != 200 && status != 304 && status != 404 && status != 409) {
+            throw new UpstreamSyncException("Unexpected upstream status " + status + " for " + url, false);
+        }
+        logger.debug("Upstream {} -> {}", url, status);
+        return response;
+    }
+
+    private static boolean isRateLimitResponse(HttpResponse<byte[]> response) {
+        return response.headers().firstValue("Retry-After").isPresent()
+                || response.headers().firstValueAsLong("X-RateLimit-Remaining").orElse(-1) == 0;
+    }
+
+    private JsonNode readBody(HttpResponse<byte[]> response) {
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            if (!body.isArray()) {
+                throw new UpstreamSyncException("Expected a JSON array from " + response.uri(), false);
+            }
+            return body;
+        } catch (IOException e) {
+            throw new UpstreamSyncException("Malformed upstream response from " + response.uri(), e);
+        }
+    }
+
+    private static String nextLink(HttpResponse<byte[]> response) {
+        return response.headers().firstValue("Link")
+                .map(NEXT_LINK::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> matcher.group(1))
+                .orElse(null);
+    }
+
+    private static String encode(String pathSegment) {
+        return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
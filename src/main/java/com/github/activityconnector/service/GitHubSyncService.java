@@ -0,0 +1,482 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.config.SyncProperties;
+import com.github.activityconnector.constants.RedisConstants;
+import com.github.activityconnector.exception.UpstreamSyncException;
+import com.github.activityconnector.model.GitHubCommit;
+import com.github.activityconnector.model.GitHubRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps {@code repos:} and {@code commits:} fresh from the upstream API.
+ *
+ * Users with a PAT are enrolled in the {@code sync:schedule} sorted set, scored by when they are next due.
+ * Each tick claims the most overdue users (atomically, so several instances can share the work), fetches them
+ * concurrently within the upstream rate-limit budget, and writes the results back in pipelined batches.
+ * Users with new commits are revisited after the minimum interval; quiet users back off towards the maximum.
+ */
+@Service
+public class GitHubSyncService {
+    private static final Logger logger = LoggerFactory.getLogger(GitHubSyncService.class);
+
+    // Fields of the per-user sync:user:{username} state hash
+    private static final String REPOS_ETAG_FIELD = "repos_etag";
+    private static final String INTERVAL_FIELD = "interval";
+    private static final String PUSHED_AT_FIELD_PREFIX = "pushed_at:";
+    private static final String SYNCED_AT_FIELD_PREFIX = "synced_at:";
+    private static final String SEEN_FIELD_PREFIX = "seen:";
+
+    private static final int ENROLL_BATCH_SIZE = 1000;
+
+    private final GitHubApiClient apiClient;
+    private final UpstreamRateBudget rateBudget;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisCircuitBreaker circuitBreaker;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> claimDueUsersScript;
+    private final SyncProperties syncProperties;
+    private final ExecutorService workers;
+
+    @SuppressWarnings("rawtypes")
+    public GitHubSyncService(GitHubApiClient apiClient, UpstreamRateBudget rateBudget, StringRedisTemplate stringRedisTemplate,
+                             ObjectMapper objectMapper, RedisCircuitBreaker circuitBreaker,
+                             RedisScript<List> claimDueUsersScript, SyncProperties syncProperties) {
+        this.apiClient = apiClient;
+        this.rateBudget = rateBudget;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.circuitBreaker = circuitBreaker;
+        this.claimDueUsersScript = claimDueUsersScript;
+        this.syncProperties = syncProperties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(syncProperties.getMaxConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "github-sync-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Add every user with a PAT to the schedule; users already scheduled keep their due time
+     */
+    @Scheduled(initialDelayString = "${activity.sync.enroll-initial-delay:5000}",
+               fixedDelayString = "${activity.sync.enroll-interval:600000}")
+    public void enrollUsers() {
+        if (!syncProperties.isEnabled() || circuitBreaker.isOpen()) {
+            return;
+        }
+
+        ScanOptions options = ScanOptions.scanOptions().match(RedisConstants.PAT_KEY_PREFIX + "*").count(ENROLL_BATCH_SIZE).build();
+        byte[] scheduleKey = rawKey(RedisConstants.SYNC_SCHEDULE_KEY);
+        int enrolled = 0;
+        try (Cursor<String> patKeys = stringRedisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(ENROLL_BATCH_SIZE);
+            while (patKeys.hasNext()) {
+                batch.add(patKeys.next().substring(RedisConstants.PAT_KEY_PREFIX.length()));
+                if (batch.size() == ENROLL_BATCH_SIZE || !patKeys.hasNext()) {
+                    List<String> usernames = batch;
+                    stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        for (String username : usernames) {
+                            connection.zSetCommands().zAdd(scheduleKey, 0, rawKey(username), RedisZSetCommands.ZAddArgs.ifNotExists());
+                        }
+                        return null;
+                    });
+                    enrolled += batch.size();
+                    batch = new ArrayList<>(ENROLL_BATCH_SIZE);
+                }
+            }
+            logger.debug("Sync enrollment checked {} users", enrolled);
+        } catch (Exception e) {
+            logger.warn("Sync enrollment failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim the most overdue users that fit in the remaining upstream budget and sync them
+     */
+    @Scheduled(initialDelayString = "${activity.sync.tick-interval:1000}",
+               fixedDelayString = "${activity.sync.tick-interval:1000}")
+    public void syncDueUsers() {
+        if (!syncProperties.isEnabled() || circuitBreaker.isOpen()) {
+            return;
+        }
+
+        // Every user costs at least one request
+        int capacity = Math.min(syncProperties.getBatchSize(), rateBudget.available());
+        if (capacity <= 0) {
+            logger.debug("Skipping sync tick: upstream budget exhausted until {}", rateBudget.getResetAtMillis());
+            return;
+        }
+
+        try {
+            List<String> usernames = claimDueUsers(capacity);
+            if (usernames.isEmpty()) {
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            List<Map<String, String>> states = readStates(usernames);
+            List<Future<UserSyncResult>> futures = new ArrayList<>(usernames.size());
+            for (int i = 0; i < usernames.size(); i++) {
+                String username = usernames.get(i);
+                Map<String, String> state = states.get(i);
+                futures.add(workers.submit(() -> syncUser(username, state)));
+            }
+
+            List<UserSyncResult> results = new ArrayList<>(futures.size());
+            long deadline = start + syncProperties.getLeaseDuration().toMillis();
+            for (Future<UserSyncResult> future : futures) {
+                try {
+                    results.add(future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+                } catch (TimeoutException e) {
+                    // Left alone, the lease expires and the user is claimed again
+                    future.cancel(true);
+                } catch (ExecutionException e) {
+                    logger.warn("Sync worker failed: {}", e.getCause().getMessage());
+                }
+            }
+
+            writeResults(results);
+            logger.info("Synced {} users in {}ms (upstream budget left: {})",
+                    results.size(), System.currentTimeMillis() - start, rateBudget.available());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Sync tick failed: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> claimDueUsers(int limit) {
+        long now = System.currentTimeMillis();
+        List<String> usernames = stringRedisTemplate.execute(claimDueUsersScript,
+                List.of(RedisConstants.SYNC_SCHEDULE_KEY),
+                String.valueOf(now), String.valueOf(limit), String.valueOf(now + syncProperties.getLeaseDuration().toMillis()));
+        return usernames != null ? usernames : List.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, String>> readStates(List<String> usernames) {
+        List<Object> states = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String username : usernames) {
+                connection.hashCommands().hGetAll(rawKey(RedisConstants.SYNC_STATE_KEY_PREFIX + username));
+            }
+            return null;
+        });
+        List<Map<String, String>> result = new ArrayList<>(states.size());
+        for (Object state : states) {
+            result.add(state != null ? (Map<String, String>) state : Map.of());
+        }
+        return result;
+    }
+
+    /**
+     * Fetch one user from upstream. Runs on a worker thread and does not touch Redis.
+     */
+    UserSyncResult syncUser(String username, Map<String, String> state) {
+        UserSyncResult result = new UserSyncResult(username);
+        long minInterval = syncProperties.getMinInterval().toMillis();
+        long maxInterval = syncProperties.getMaxInterval().toMillis();
+        long interval = parseLong(state.get(INTERVAL_FIELD), minInterval);
+        long backedOff = Math.min(interval * 2, maxInterval);
+
+        try {
+            GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamRepository>> repos =
+                    apiClient.fetchRepositories(username, state.get(REPOS_ETAG_FIELD));
+            if (repos.notFound()) {
+                logger.debug("Upstream user {} not found", username);
+                return result.scheduleIn(maxInterval);
+            }
+            if (repos.notModified()) {
+                return result.scheduleIn(backedOff);
+            }
+
+            result.repositories = repos.body();
+            // A listing cut off at max-repo-pages says nothing about the repositories beyond it
+            if (repos.complete()) {
+                Set<String> current = new HashSet<>();
+                for (GitHubApiClient.UpstreamRepository repo : repos.body()) {
+                    current.add(repo.name());
+                }
+                for (String field : state.keySet()) {
+                    if (field.startsWith(PUSHED_AT_FIELD_PREFIX)) {
+                        String repoName = field.substring(PUSHED_AT_FIELD_PREFIX.length());
+                        if (!current.contains(repoName)) {
+                            result.removedRepositories.add(repoName);
+                        }
+                    }
+                }
+            }
+
+            boolean active = false;
+            boolean skippedAny = false;
+            for (GitHubApiClient.UpstreamRepository repo : repos.body()) {
+                String pushedAt = repo.pushedAt();
+                if (pushedAt != null && pushedAt.equals(state.get(PUSHED_AT_FIELD_PREFIX + repo.name()))) {
+                    continue;
+                }
+                try {
+                    active |= syncCommits(result, username, repo.name(), state);
+                } catch (RuntimeException e) {
+                    if (e instanceof UpstreamSyncException upstream && upstream.isRateLimited()) {
+                        throw upstream;
+                    }
+                    // Its pushed_at is not recorded, so the repository is retried next time without holding up the rest
+                    logger.warn("Sync of {}/{} failed, skipping it: {}", username, repo.name(), e.getMessage());
+                    skippedAny = true;
+                    continue;
+                }
+                if (pushedAt != null) {
+                    result.stateUpdates.put(PUSHED_AT_FIELD_PREFIX + repo.name(), pushedAt);
+                }
+            }
+
+            // Only recorded once every repository is done, so a partial sync is resumed rather than skipped
+            if (repos.etag() != null && !skippedAny) {
+                result.stateUpdates.put(REPOS_ETAG_FIELD, repos.etag());
+            }
+            return result.scheduleIn(active ? minInterval : backedOff);
+        } catch (UpstreamSyncException e) {
+            if (e.isRateLimited()) {
+                logger.debug("Sync of {} paused by upstream rate limit", username);
+                result.nextSyncAt = Math.max(rateBudget.getResetAtMillis(), System.currentTimeMillis() + 1000);
+                return result;
+            }
+            logger.warn("Sync of {} failed: {}", username, e.getMessage());
+            return result.scheduleIn(minInterval);
+        } catch (RuntimeException e) {
+            // Returning a result reschedules the user now rather than when the lease expires
+            logger.warn("Sync of {} failed unexpectedly: {}", username, e.toString());
+            return result.scheduleIn(minInterval);
+        }
+    }
+
+    /**
+     * Fetch the commits committed since the previous sync of a repository, minus {@code commit-overlap}, and keep
+     * those not seen before. The overlap catches commits pushed late with an older committer date, such as merged
+     * branches; the SHAs already fetched within it are kept in the state hash so they are not stored twice.
+     * The first sync of a repository replaces its list.
+     * @return whether new commits were found
+     */
+    private boolean syncCommits(UserSyncResult result, String username, String repoName, Map<String, String> state) {
+        Instant lastSyncedAt = parseInstant(state.get(SYNCED_AT_FIELD_PREFIX + repoName));
+        Duration overlap = syncProperties.getCommitOverlap();
+        Instant since = lastSyncedAt != null ? lastSyncedAt.minus(overlap) : null;
+        Instant fetchedAt = Instant.now();
+
+        GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamCommit>> commits = apiClient.fetchCommits(
+                username, repoName, since, null, syncProperties.getMaxCommitsPerRepo());
+        if (commits.notFound()) {
+            return false;
+        }
+
+        Set<String> seen = since != null ? parseShas(state.get(SEEN_FIELD_PREFIX + repoName)) : Set.of();
+        // Fetched again by the next sync, so remembered until then
+        Instant nextSince = fetchedAt.minus(overlap);
+        List<String> stillInOverlap = new ArrayList<>();
+        List<GitHubCommit> newestFirst = new ArrayList<>(commits.body().size());
+        List<GitHubCommit> unseen = new ArrayList<>();
+        for (GitHubApiClient.UpstreamCommit commit : commits.body()) {
+            newestFirst.add(commit.commit());
+            if (commit.sha() == null || !seen.contains(commit.sha())) {
+                unseen.add(commit.commit());
+            }
+            if (commit.sha() != null && (commit.committedAt() == null || !commit.committedAt().isBefore(nextSince))) {
+                stillInOverlap.add(commit.sha());
+            }
+        }
+
+        result.stateUpdates.put(SYNCED_AT_FIELD_PREFIX + repoName, fetchedAt.toString());
+        if (stillInOverlap.isEmpty()) {
+            result.stateDeletes.add(SEEN_FIELD_PREFIX + repoName);
+        } else {
+            result.stateUpdates.put(SEEN_FIELD_PREFIX + repoName, String.join(",", stillInOverlap));
+        }
+        if (unseen.isEmpty()) {
+            return false;
+        }
+
+        // More commits than the list keeps would leave a gap below them, so start the list over
+        if (since == null || !commits.complete()) {
+            result.newCommits.put(repoName, newestFirst);
+            result.replacedCommitLists.add(repoName);
+        } else {
+            result.newCommits.put(repoName, unseen);
+        }
+        return true;
+    }
+
+    private static Set<String> parseShas(String value) {
+        return value == null || value.isEmpty() ? Set.of() : new HashSet<>(Arrays.asList(value.split(",")));
+    }
+
+    private void writeResults(List<UserSyncResult> results) {
+        int batchSize = syncProperties.getWriteBatchSize();
+        for (int from = 0; from < results.size(); from += batchSize) {
+            List<UserSyncResult> batch = results.subList(from, Math.min(from + batchSize, results.size()));
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (UserSyncResult result : batch) {
+                    writeResult(connection, result);
+                }
+                return null;
+            });
+        }
+    }
+
+    private void writeResult(RedisConnection connection, UserSyncResult result) {
+        String username = result.username;
+        byte[] stateKey = rawKey(RedisConstants.SYNC_STATE_KEY_PREFIX + username);
+
+        if (result.repositories != null) {
+            byte[] reposKey = rawKey(RedisConstants.REPOS_KEY_PREFIX + username);
+            Map<byte[], byte[]> repoValues = new LinkedHashMap<>();
+            for (GitHubApiClient.UpstreamRepository upstream : result.repositories) {
+                GitHubRepository repo = new GitHubRepository();
+                repo.setName(upstream.name());
+                repo.setDescription(upstream.description());
+                repo.setRecentCommits(List.of());
+                repoValues.put(rawKey(upstream.name()), toJson(repo));
+            }
+            if (!repoValues.isEmpty()) {
+                connection.hashCommands().hMSet(reposKey, repoValues);
+            }
+            for (String removed : result.removedRepositories) {
+                connection.hashCommands().hDel(reposKey, rawKey(removed));
+                connection.keyCommands().del(commitsKey(username, removed));
+                connection.hashCommands().hDel(stateKey, rawKey(PUSHED_AT_FIELD_PREFIX + removed),
+                        rawKey(SYNCED_AT_FIELD_PREFIX + removed), rawKey(SEEN_FIELD_PREFIX + removed));
+            }
+        }
+
+        for (Map.Entry<String, List<GitHubCommit>> entry : result.newCommits.entrySet()) {
+            byte[] commitsKey = commitsKey(username, entry.getKey());
+            List<GitHubCommit> newestFirst = entry.getValue();
+            byte[][] values = new byte[newestFirst.size()][];
+            if (result.replacedCommitLists.contains(entry.getKey())) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = toJson(newestFirst.get(i));
+                }
+                connection.keyCommands().del(commitsKey);
+                connection.listCommands().rPush(commitsKey, values);
+            } else {
+                // LPUSH inserts one by one, so push oldest first to keep the newest at the head
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = toJson(newestFirst.get(values.length - 1 - i));
+                }
+                connection.listCommands().lPush(commitsKey, values);
+            }
+            connection.listCommands().lTrim(commitsKey, 0, syncProperties.getMaxCommitsPerRepo() - 1);
+        }
+
+        if (result.interval > 0) {
+            result.stateUpdates.put(INTERVAL_FIELD, String.valueOf(result.interval));
+        }
+        if (!result.stateDeletes.isEmpty()) {
+            connection.hashCommands().hDel(stateKey, result.stateDeletes.stream().map(GitHubSyncService::rawKey).toArray(byte[][]::new));
+        }
+        if (!result.stateUpdates.isEmpty()) {
+            Map<byte[], byte[]> updates = new HashMap<>();
+            result.stateUpdates.forEach((field, value) -> updates.put(rawKey(field), rawKey(value)));
+            connection.hashCommands().hMSet(stateKey, updates);
+        }
+
+        connection.zSetCommands().zAdd(rawKey(RedisConstants.SYNC_SCHEDULE_KEY), result.nextSyncAt, rawKey(username));
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + value, e);
+        }
+    }
+
+    private static Instant parseInstant(String value) {
+        try {
+            return value != null ? Instant.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static byte[] commitsKey(String username, String repoName) {
+        return rawKey(RedisConstants.COMMITS_KEY_PREFIX + username + ":" + repoName);
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Everything learned about one user in a tick, applied to Redis by the writer
+     */
+    static final class UserSyncResult {
+        final String username;
+        List<GitHubApiClient.UpstreamRepository> repositories;
+        final List<String> removedRepositories = new ArrayList<>();
+        final Map<String, List<GitHubCommit>> newCommits = new LinkedHashMap<>();
+        final Set<String> replacedCommitLists = new HashSet<>();
+        final Map<String, String> stateUpdates = new HashMap<>();
+        final List<String> stateDeletes = new ArrayList<>();
+        long interval;
+        long nextSyncAt;
+
+        private UserSyncResult(String username) {
+            this.username = username;
+        }
+
+        private UserSyncResult scheduleIn(long interval) {
+            this.interval = interval;
+            this.nextSyncAt = System.currentTimeMillis() + interval;
+            return this;
+        }
+    }
+}
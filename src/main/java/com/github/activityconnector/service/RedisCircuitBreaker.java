@@ -0,0 +1,76 @@
+package com.github.activityconnector.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consecutive-failure circuit breaker guarding Redis reads.
+ * After the failure threshold is reached the circuit stays open for the configured duration,
+ * then a single trial request is let through; its outcome closes or re-opens the circuit.
+ */
+@Component
+public class RedisCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAtMillis;
+
+    public RedisCircuitBreaker(@Value("${activity.redis.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${activity.redis.circuit-breaker.open-duration:30000}") long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Whether a Redis call should be attempted right now
+     */
+    public boolean allowRequest() {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return true;
+        }
+        if (System.currentTimeMillis() - openedAtMillis < openDurationMillis) {
+            return false;
+        }
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    public boolean isOpen() {
+        return consecutiveFailures.get() >= failureThreshold;
+    }
+
+    public void recordSuccess() {
+        if (consecutiveFailures.getAndSet(0) >= failureThreshold) {
+            logger.info("Redis circuit breaker closed");
+        }
+        trialInFlight.set(false);
+    }
+
+    /**
+     * Close the circuit and forget recent failures, e.g. after synthetic traffic that should not count
+     */
+    public void reset() {
+        consecutiveFailures.set(0);
+        trialInFlight.set(false);
+    }
+
+    public void recordFailure() {
+        // Stamp before counting so a concurrent allowRequest never sees an open circuit with a stale timestamp
+        openedAtMillis = System.currentTimeMillis();
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= failureThreshold) {
+            if (failures == failureThreshold || trialInFlight.get()) {
+                logger.warn("Redis circuit breaker open for {}ms after {} consecutive failures", openDurationMillis, failures);
+            }
+            trialInFlight.set(false);
+        }
+    }
+}
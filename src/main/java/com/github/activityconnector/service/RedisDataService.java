@@ -4,12 +4,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.activityconnector.constants.RedisConstants;
 import com.github.activityconnector.exception.AuthenticationException;
 import com.github.activityconnector.exception.DataNotFoundException;
+import com.github.activityconnector.model.FieldProjection;
 import com.github.activityconnector.model.GitHubCommit;
 import com.github.activityconnector.model.GitHubRepository;
 import com.github.activityconnector.model.PaginatedResponse;
+import com.github.activityconnector.model.StreamingPage;
 import com.github.activityconnector.model.UserActivityResponse;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
@@ -18,31 +27,55 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.nio.charset.StandardCharsets;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class RedisDataService {
     private static final Logger logger = LoggerFactory.getLogger(RedisDataService.class);
     
+    /**
+     * One user's data as written to the local snapshot
+     */
+    record SnapshotRecord(String username, String hashedPat, List<GitHubRepository> repositories,
+                          Map<String, Long> commitTotals) {}
+    
     private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final SnapshotStore snapshotStore;
+    private final ActivityJsonWriter activityJsonWriter;
+    private final long commandTimeoutMillis;
 
-    public RedisDataService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper) {
+    public RedisDataService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+                            RedisCircuitBreaker circuitBreaker, SnapshotStore snapshotStore, ActivityJsonWriter activityJsonWriter,
+                            @Value("${spring.data.redis.timeout:2000ms}") Duration commandTimeout) {
         this.redisTemplate = redisTemplate;
         this.stringRedisTemplate = stringRedisTemplate;
         this.objectMapper = objectMapper;
+        this.circuitBreaker = circuitBreaker;
+        this.snapshotStore = snapshotStore;
+        this.activityJsonWriter = activityJsonWriter;
+        this.commandTimeoutMillis = commandTimeout.toMillis();
     }
 
     /**
-     * Validate user PAT by comparing hash with stored hash in Redis
+     * Validate user PAT by comparing hash with stored hash in Redis (or the local snapshot while Redis is down)
      */
     public boolean isValidUserWithPat(String username, String pat) {
-        String patKey = RedisConstants.PAT_KEY_PREFIX + username;
         try {
-            String storedHashedPat = stringRedisTemplate.opsForValue().get(patKey);
+            String storedHashedPat = readWithFallback("PAT", username,
+                    () -> readHashedPat(username),
+                    () -> snapshotStore.getHashedPat(username));
             if (storedHashedPat == null) {
                 logger.debug("PAT validation for user {}: invalid (not found)", username);
                 return false;
@@ -59,7 +92,8 @@ public class RedisDataService {
     }
     
     /**
-     * Check rate limit using Redis INCR and EXPIRE commands
+     * Check rate limit using Redis INCR and EXPIRE commands.
+     * Fails open: the check is skipped while Redis is unavailable.
      * @param username the username to check
      * @param maxRequests maximum requests allowed per minute
      * @throws RateLimitExceededException if rate limit is exceeded
@@ -67,12 +101,18 @@ public class RedisDataService {
     public void checkRateLimit(String username, int maxRequests) {
         String rateLimitKey = "rate_limit:" + username;
         
+        if (!circuitBreaker.allowRequest()) {
+            logger.debug("Skipping rate limit check for user {}: Redis circuit open", username);
+            return;
+        }
+        
         try {
             Long currentCount = stringRedisTemplate.opsForValue().increment(rateLimitKey);
             
             if (currentCount == 1) {
                 stringRedisTemplate.expire(rateLimitKey, java.time.Duration.ofMinutes(1));
             }
+            circuitBreaker.recordSuccess();
             
             if (currentCount > maxRequests) {
                 Long ttl = stringRedisTemplate.getExpire(rateLimitKey, java.util.concurrent.TimeUnit.SECONDS);
@@ -90,6 +130,7 @@ public class RedisDataService {
         } catch (com.github.activityconnector.exception.RateLimitExceededException e) {
             throw e;
         } catch (Exception e) {
+            circuitBreaker.recordFailure();
             logger.error("Error checking rate limit for user {}: {}", username, e.getMessage());
         }
     }
@@ -130,12 +171,9 @@ public class RedisDataService {
     public UserActivityResponse getUserActivityFromRedis(String username) {
         logger.info("Fetching user activity from Redis for: {}", username);
         
-        List<GitHubRepository> repositories = getRepositoriesFromRedis(username);
-        
-        for (GitHubRepository repo : repositories) {
-            List<GitHubCommit> commits = getCommitsFromRedis(username, repo.getName());
-            repo.setRecentCommits(commits);
-        }
+        List<GitHubRepository> repositories = readWithFallback("user activity", username,
+                () -> readRepositoriesWithCommits(username),
+                () -> snapshotStore.getRepositories(username));
         
         UserActivityResponse response = new UserActivityResponse(username, repositories);
         logger.info("Retrieved {} repositories from Redis for user: {}", repositories.size(), username);
@@ -147,120 +185,304 @@ public class RedisDataService {
      * Get repositories for a user from Redis
      */
     public List<GitHubRepository> getRepositoriesFromRedis(String username) {
-        String reposKey = RedisConstants.REPOS_KEY_PREFIX + username;
+        List<GitHubRepository> repositories = readWithFallback("repositories", username,
+                () -> readRepositories(username),
+                () -> snapshotStore.getRepositories(username));
+        
+        logger.debug("Found {} repositories for user: {}", repositories.size(), username);
+        return repositories;
+    }
+
+    /**
+     * Get commits for a specific repository from Redis
+     */
+    public List<GitHubCommit> getCommitsFromRedis(String username, String repoName) {
+        List<GitHubCommit> commits = readWithFallback("commits", username,
+                () -> readCommits(username, repoName, 0, RedisConstants.PAGE_SIZE - 1),
+                () -> snapshotStore.getCommits(username, repoName));
+        
+        logger.debug("Found {} commits for {}/{}", commits.size(), username, repoName);
+        return commits;
+    }
+
+    /**
+     * Get a page of repositories for streaming, reading raw Redis values and only the commits the projection asks for
+     */
+    public StreamingPage streamRepositories(String username, int page, int size, FieldProjection projection) {
+        return readWithFallback("repositories", username,
+                () -> readRawRepositoryPage(username, page, size, projection),
+                () -> activityJsonWriter.repositoryPage(stale(paginate(snapshotStore.getRepositories(username), page, size)), projection));
+    }
+
+    /**
+     * Get a page of commits for streaming, reading raw Redis values
+     */
+    public StreamingPage streamCommits(String username, String repoName, int page, int size, FieldProjection projection) {
+        return readWithFallback("commits", username,
+                () -> readRawCommitPage(username, repoName, page, size, projection),
+                () -> activityJsonWriter.commitPage(snapshotCommitPage(username, repoName, page, size), projection));
+    }
+
+    private StreamingPage readRawRepositoryPage(String username, int page, int size, FieldProjection projection) {
+        byte[] reposKey = rawKey(RedisConstants.REPOS_KEY_PREFIX + username);
+        List<byte[]> rawRepositories = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hVals(reposKey));
+        
         List<GitHubRepository> repositories = new ArrayList<>();
+        if (rawRepositories != null) {
+            for (byte[] rawRepository : rawRepositories) {
+                GitHubRepository repo = activityJsonWriter.readRepositorySummary(rawRepository);
+                if (repo != null) {
+                    repositories.add(repo);
+                }
+            }
+        }
         
-        try {
-            Set<Object> repoKeys = redisTemplate.opsForHash().keys(reposKey);
-            
-            for (Object repoKey : repoKeys) {
-                Object repoObj = redisTemplate.opsForHash().get(reposKey, repoKey);
-                if (repoObj != null) {
-                    try {
-                        GitHubRepository repo = objectMapper.convertValue(repoObj, GitHubRepository.class);
-                        repositories.add(repo);
-                    } catch (Exception e) {
-                        logger.warn("Error converting repository object for {}: {}", repoKey, e.getMessage());
-                    }
+        List<GitHubRepository> pageItems = paginate(repositories, page, size).getData();
+        int commitLimit = projection.getCommitLimit();
+        List<List<byte[]>> rawCommits = new ArrayList<>(pageItems.size());
+        if (commitLimit > 0 && !pageItems.isEmpty()) {
+            // One round trip for the commits of every repository on the page
+            List<Object> results = readOnSharedConnection(commands -> {
+                List<RedisFuture<?>> futures = new ArrayList<>(pageItems.size());
+                for (GitHubRepository repo : pageItems) {
+                    futures.add(commands.lrange(rawCommitsKey(username, repo.getName()), 0, commitLimit - 1));
                 }
+                return futures;
+            });
+            for (Object result : results) {
+                rawCommits.add(castRawList(result));
             }
-            
-            logger.debug("Found {} repositories in Redis for user: {}", repositories.size(), username);
-        } catch (Exception e) {
-            logger.warn("Error retrieving repositories from Redis for user {}: {}", username, e.getMessage());
         }
         
-        return repositories;
+        logger.debug("Streaming page {} of repositories for user {}: {} items, up to {} commits each", page, username, pageItems.size(), commitLimit);
+        return activityJsonWriter.rawRepositoryPage(pageItems, rawCommits, page, size, repositories.size(), projection);
+    }
+
+    private StreamingPage readRawCommitPage(String username, String repoName, int page, int size, FieldProjection projection) {
+        byte[] commitsKey = rawCommitsKey(username, repoName);
+        long startIndex = (long) page * size;
+        List<Object> results = readOnSharedConnection(commands -> List.of(
+                commands.llen(commitsKey),
+                commands.lrange(commitsKey, startIndex, startIndex + size - 1)));
+        
+        long totalElements = results.get(0) != null ? (Long) results.get(0) : 0L;
+        List<byte[]> rawCommits = castRawList(results.get(1));
+        
+        logger.debug("Streaming {} commits for {}/{} (page {})", rawCommits.size(), username, repoName, page);
+        return activityJsonWriter.rawCommitPage(rawCommits, page, size, totalElements, projection);
     }
 
     /**
-     * Get paginated repositories for a user from Redis with commits populated
+     * Send several commands back to back on the shared Lettuce connection and wait for every reply, in order.
+     * Lettuce does not wait for one reply before writing the next command, so this costs a single round trip.
+     * openPipeline() would instead borrow a dedicated connection, which without a pool means a new TCP connection per call.
      */
-    public PaginatedResponse<GitHubRepository> getRepositoriesFromRedis(String username, int page, int size) {
-        List<GitHubRepository> allRepositories = getRepositoriesFromRedis(username);
-        
-        // Populate commits for each repository
-        for (GitHubRepository repo : allRepositories) {
-            List<GitHubCommit> commits = getCommitsFromRedis(username, repo.getName());
-            repo.setRecentCommits(commits);
+    @SuppressWarnings("unchecked")
+    private List<Object> readOnSharedConnection(Function<RedisClusterAsyncCommands<byte[], byte[]>, List<RedisFuture<?>>> commands) {
+        return redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            List<RedisFuture<?>> futures = commands.apply((RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection());
+            long deadline = System.currentTimeMillis() + commandTimeoutMillis;
+            List<Object> results = new ArrayList<>(futures.size());
+            try {
+                for (RedisFuture<?> future : futures) {
+                    results.add(future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+                }
+            } catch (TimeoutException e) {
+                throw new QueryTimeoutException("Redis did not reply within " + commandTimeoutMillis + "ms", e);
+            } catch (ExecutionException e) {
+                throw new RedisSystemException("Redis command failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RedisSystemException("Interrupted waiting for Redis", e);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Commit page from the local snapshot. The snapshot only holds the most recent commits, so deeper pages come back empty.
+     */
+    private PaginatedResponse<GitHubCommit> snapshotCommitPage(String username, String repoName, int page, int size) {
+        List<GitHubCommit> recent = snapshotStore.getCommits(username, repoName);
+        int startIndex = (int) Math.min((long) page * size, recent.size());
+        int endIndex = Math.min(startIndex + size, recent.size());
+        return stale(new PaginatedResponse<>(recent.subList(startIndex, endIndex), page, size,
+                snapshotStore.getCommitTotal(username, repoName)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<byte[]> castRawList(Object result) {
+        return result != null ? (List<byte[]>) result : List.of();
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] rawCommitsKey(String username, String repoName) {
+        return rawKey(RedisConstants.COMMITS_KEY_PREFIX + username + ":" + repoName);
+    }
+
+    /**
+     * Read from Redis unless the circuit is open, falling back to the local snapshot when Redis fails
+     */
+    private <T> T readWithFallback(String what, String username, Supplier<T> redisRead, Supplier<T> snapshotRead) {
+        if (circuitBreaker.allowRequest()) {
+            try {
+                T result = redisRead.get();
+                circuitBreaker.recordSuccess();
+                return result;
+            } catch (DataAccessException e) {
+                circuitBreaker.recordFailure();
+                logger.warn("Error retrieving {} from Redis for user {}: {}", what, username, e.getMessage());
+            } catch (RuntimeException e) {
+                // Redis answered, so a bug in handling the reply must not open the circuit or hold the trial slot
+                circuitBreaker.recordSuccess();
+                throw e;
+            }
         }
+        logger.debug("Serving {} for user {} from local snapshot", what, username);
+        return snapshotRead.get();
+    }
+
+    private static <T> PaginatedResponse<T> paginate(List<T> all, int page, int size) {
+        int totalElements = all.size();
+        long startIndex = (long) page * size;
         
-        int totalElements = allRepositories.size();
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, totalElements);
-        
-        List<GitHubRepository> paginatedRepos = new ArrayList<>();
+        List<T> pageItems = new ArrayList<>();
         if (startIndex < totalElements) {
-            paginatedRepos = allRepositories.subList(startIndex, endIndex);
+            pageItems = all.subList((int) startIndex, (int) Math.min(startIndex + size, totalElements));
         }
+        return new PaginatedResponse<>(pageItems, page, size, totalElements);
+    }
+
+    private static <T> PaginatedResponse<T> stale(PaginatedResponse<T> response) {
+        response.setStale(true);
+        return response;
+    }
+
+    /**
+     * Read the stored PAT hash; Redis failures propagate to the caller
+     */
+    String readHashedPat(String username) {
+        return stringRedisTemplate.opsForValue().get(RedisConstants.PAT_KEY_PREFIX + username);
+    }
+
+    /**
+     * Read repositories for a user; Redis failures propagate to the caller
+     */
+    List<GitHubRepository> readRepositories(String username) {
+        String reposKey = RedisConstants.REPOS_KEY_PREFIX + username;
+        List<GitHubRepository> repositories = new ArrayList<>();
         
-        logger.debug("Returning page {} of repositories for user {}: {} items with commits", page, username, paginatedRepos.size());
-        return new PaginatedResponse<>(paginatedRepos, page, size, totalElements);
+        for (Object repoObj : redisTemplate.opsForHash().values(reposKey)) {
+            if (repoObj != null) {
+                try {
+                    repositories.add(objectMapper.convertValue(repoObj, GitHubRepository.class));
+                } catch (Exception e) {
+                    logger.warn("Error converting repository object for user {}: {}", username, e.getMessage());
+                }
+            }
+        }
+        return repositories;
     }
 
     /**
-     * Get commits for a specific repository from Redis
+     * Read repositories with their most recent page of commits; Redis failures propagate to the caller
      */
-    public List<GitHubCommit> getCommitsFromRedis(String username, String repoName) {
+    List<GitHubRepository> readRepositoriesWithCommits(String username) {
+        List<GitHubRepository> repositories = readRepositories(username);
+        for (GitHubRepository repo : repositories) {
+            repo.setRecentCommits(readCommits(username, repo.getName(), 0, RedisConstants.PAGE_SIZE - 1));
+        }
+        return repositories;
+    }
+
+    /**
+     * Read a range of commits for a repository; Redis failures propagate to the caller
+     */
+    List<GitHubCommit> readCommits(String username, String repoName, long start, long end) {
         String commitsKey = RedisConstants.COMMITS_KEY_PREFIX + username + ":" + repoName;
         List<GitHubCommit> commits = new ArrayList<>();
         
-        try {
-            List<Object> commitObjects = redisTemplate.opsForList().range(commitsKey, 0, 19);
-            
-            if (commitObjects != null) {
-                for (Object commitObj : commitObjects) {
-                    try {
-                        GitHubCommit commit = objectMapper.convertValue(commitObj, GitHubCommit.class);
-                        commits.add(commit);
-                    } catch (Exception e) {
-                        logger.warn("Error converting commit object: {}", e.getMessage());
-                    }
+        List<Object> commitObjects = redisTemplate.opsForList().range(commitsKey, start, end);
+        if (commitObjects != null) {
+            for (Object commitObj : commitObjects) {
+                try {
+                    commits.add(objectMapper.convertValue(commitObj, GitHubCommit.class));
+                } catch (Exception e) {
+                    logger.warn("Error converting commit object: {}", e.getMessage());
                 }
             }
-            
-            logger.debug("Found {} commits in Redis for {}/{}", commits.size(), username, repoName);
-        } catch (Exception e) {
-            logger.warn("Error retrieving commits from Redis for {}/{}: {}", username, repoName, e.getMessage());
         }
-        
         return commits;
     }
 
     /**
-     * Get paginated commits for a specific repository from Redis
+     * Read the snapshot records of a batch of users in two pipelined round trips: PATs and repositories first,
+     * then the most recent page of commits and the commit count of every repository. Redis failures propagate to the caller.
      */
-    public PaginatedResponse<GitHubCommit> getCommitsFromRedis(String username, String repoName, int page, int size) {
-        String commitsKey = RedisConstants.COMMITS_KEY_PREFIX + username + ":" + repoName;
-        List<GitHubCommit> commits = new ArrayList<>();
+    List<SnapshotRecord> readSnapshotRecords(List<String> usernames) {
+        List<Object> userResults = readOnSharedConnection(commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>(2 * usernames.size());
+            for (String username : usernames) {
+                futures.add(commands.get(rawKey(RedisConstants.PAT_KEY_PREFIX + username)));
+                futures.add(commands.hvals(rawKey(RedisConstants.REPOS_KEY_PREFIX + username)));
+            }
+            return futures;
+        });
         
-        try {
-            Long totalElements = redisTemplate.opsForList().size(commitsKey);
-            if (totalElements == null) totalElements = 0L;
-            
-            int startIndex = page * size;
-            int endIndex = startIndex + size - 1;
-            
-            List<Object> commitObjects = redisTemplate.opsForList().range(commitsKey, startIndex, endIndex);
-            
-            if (commitObjects != null) {
-                for (Object commitObj : commitObjects) {
-                    try {
-                        GitHubCommit commit = objectMapper.convertValue(commitObj, GitHubCommit.class);
-                        commits.add(commit);
-                    } catch (Exception e) {
-                        logger.warn("Error converting commit object: {}", e.getMessage());
-                    }
+        List<List<GitHubRepository>> repositoriesByUser = new ArrayList<>(usernames.size());
+        for (int i = 0; i < usernames.size(); i++) {
+            List<GitHubRepository> repositories = new ArrayList<>();
+            for (byte[] rawRepository : castRawList(userResults.get(2 * i + 1))) {
+                GitHubRepository repo = activityJsonWriter.readRepositorySummary(rawRepository);
+                if (repo != null) {
+                    repositories.add(repo);
                 }
             }
-            
-            logger.debug("Found {} commits in Redis for {}/{} (page {})", commits.size(), username, repoName, page);
-            return new PaginatedResponse<>(commits, page, size, totalElements);
-            
-        } catch (Exception e) {
-            logger.warn("Error retrieving commits from Redis for {}/{}: {}", username, repoName, e.getMessage());
-            return new PaginatedResponse<>(commits, page, size, 0L);
+            repositoriesByUser.add(repositories);
+        }
+        
+        List<Object> commitResults = readOnSharedConnection(commands -> {
+            List<RedisFuture<?>> futures = new ArrayList<>();
+            for (int i = 0; i < usernames.size(); i++) {
+                for (GitHubRepository repo : repositoriesByUser.get(i)) {
+                    byte[] commitsKey = rawCommitsKey(usernames.get(i), repo.getName());
+                    futures.add(commands.lrange(commitsKey, 0, RedisConstants.PAGE_SIZE - 1));
+                    futures.add(commands.llen(commitsKey));
+                }
+            }
+            return futures;
+        });
+        
+        List<SnapshotRecord> records = new ArrayList<>(usernames.size());
+        int next = 0;
+        for (int i = 0; i < usernames.size(); i++) {
+            byte[] rawPat = (byte[]) userResults.get(2 * i);
+            Map<String, Long> commitTotals = new HashMap<>();
+            for (GitHubRepository repo : repositoriesByUser.get(i)) {
+                repo.setRecentCommits(deserializeCommits(castRawList(commitResults.get(next++))));
+                Long total = (Long) commitResults.get(next++);
+                commitTotals.put(repo.getName(), total != null ? total : 0L);
+            }
+            records.add(new SnapshotRecord(usernames.get(i), rawPat != null ? new String(rawPat, StandardCharsets.UTF_8) : null,
+                    repositoriesByUser.get(i), commitTotals));
         }
+        return records;
+    }
+    
+    private List<GitHubCommit> deserializeCommits(List<byte[]> rawCommits) {
+        List<GitHubCommit> commits = new ArrayList<>(rawCommits.size());
+        for (byte[] rawCommit : rawCommits) {
+            try {
+                commits.add(objectMapper.convertValue(redisTemplate.getValueSerializer().deserialize(rawCommit), GitHubCommit.class));
+            } catch (Exception e) {
+                logger.warn("Error converting commit object: {}", e.getMessage());
+            }
+        }
+        return commits;
     }
 
 }
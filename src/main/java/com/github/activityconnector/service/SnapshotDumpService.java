@@ -0,0 +1,89 @@
+package com.github.activityconnector.service;
+
+import com.github.activityconnector.constants.RedisConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Periodically dumps every authenticated user's repositories and recent commits from Redis
+ * into the local {@link SnapshotStore}. A failed dump keeps the previous snapshot.
+ * Users are read in pipelined batches, and every dump starts after a random delay so instances drift apart
+ * instead of scanning Redis at the same moment.
+ */
+@Service
+public class SnapshotDumpService {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotDumpService.class);
+
+    private final RedisDataService redisDataService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final SnapshotStore snapshotStore;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long jitterMillis;
+
+    public SnapshotDumpService(RedisDataService redisDataService, StringRedisTemplate stringRedisTemplate,
+                               RedisCircuitBreaker circuitBreaker, SnapshotStore snapshotStore,
+                               @Value("${activity.snapshot.enabled:true}") boolean enabled,
+                               @Value("${activity.snapshot.batch-size:100}") int batchSize,
+                               @Value("${activity.snapshot.dump-jitter:60000}") long jitterMillis) {
+        this.redisDataService = redisDataService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.snapshotStore = snapshotStore;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.jitterMillis = jitterMillis;
+    }
+
+    @Scheduled(initialDelayString = "${activity.snapshot.initial-delay:10000}",
+               fixedDelayString = "${activity.snapshot.dump-interval:300000}")
+    public void dumpSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        if (circuitBreaker.isOpen()) {
+            logger.info("Skipping snapshot dump: Redis circuit open");
+            return;
+        }
+
+        if (jitterMillis > 0) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(jitterMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        ScanOptions options = ScanOptions.scanOptions().match(RedisConstants.PAT_KEY_PREFIX + "*").count(1000).build();
+        try (SnapshotStore.Writer writer = snapshotStore.openWriter();
+             Cursor<String> patKeys = stringRedisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            while (patKeys.hasNext()) {
+                batch.add(patKeys.next().substring(RedisConstants.PAT_KEY_PREFIX.length()));
+                if (batch.size() == batchSize || !patKeys.hasNext()) {
+                    for (RedisDataService.SnapshotRecord record : redisDataService.readSnapshotRecords(batch)) {
+                        writer.append(record.username(), record.hashedPat(), record.repositories(), record.commitTotals());
+                    }
+                    batch.clear();
+                }
+            }
+            writer.publish();
+            logger.info("Snapshot dump of {} users completed in {}ms", writer.getUserCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("Snapshot dump failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+}
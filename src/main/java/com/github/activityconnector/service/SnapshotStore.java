@@ -0,0 +1,430 @@
+package com.github.activityconnector.service;
+
+import com.github.activityconnector.model.GitHubCommit;
+import com.github.activityconnector.model.GitHubRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local, memory-mapped snapshot of repositories and recent commits per user.
+ * Used as a read-only fallback while Redis is unavailable.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * header : magic(int) version(int) createdAtMillis(long) indexOffset(long) userCount(int)
+ *          regionSize(long) maxRecordSize(int)
+ * record : hashedPat(str) repoCount(int) { name(str) description(str) commitTotal(long) commitCount(int)
+ *          { message(str) author(str) timestamp(ts) }* }*
+ * index  : { username(str) recordOffset(long) }*
+ * str    : length(int, -1 for null) UTF-8 bytes
+ * ts     : epochSecondUtc(long, Long.MIN_VALUE for null) nanos(int)
+ * </pre>
+ *
+ * A single mapping is limited to 2 GiB, so the file is mapped in regions of {@code regionSize} bytes, each extended
+ * by {@code maxRecordSize} so that every record (and index entry) lies entirely within the region it starts in.
+ */
+@Component
+public class SnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x47484153; // "GHAS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 8 + 4;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final long DEFAULT_REGION_SIZE = 1L << 30;
+
+    private final Path snapshotPath;
+    private final long regionSize;
+    private volatile Snapshot current;
+
+    @Autowired
+    public SnapshotStore(@Value("${activity.snapshot.path:./data/activity-snapshot.bin}") String snapshotPath) {
+        this(snapshotPath, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize size of the regions new snapshots are written for; existing files use the size in their header
+     */
+    SnapshotStore(String snapshotPath, long regionSize) {
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.regionSize = regionSize;
+        load();
+    }
+
+    public boolean isAvailable() {
+        return current != null;
+    }
+
+    /**
+     * Creation time of the snapshot currently served, or 0 if none is loaded
+     */
+    public long getCreatedAtMillis() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot.createdAtMillis : 0L;
+    }
+
+    public String getHashedPat(String username) {
+        ByteBuffer record = recordFor(username);
+        return record != null ? readString(record) : null;
+    }
+
+    /**
+     * Get repositories for a user with their recent commits populated
+     */
+    public List<GitHubRepository> getRepositories(String username) {
+        ByteBuffer record = recordFor(username);
+        if (record == null) {
+            return new ArrayList<>();
+        }
+        skipString(record);
+        int repoCount = record.getInt();
+        List<GitHubRepository> repositories = new ArrayList<>(repoCount);
+        for (int i = 0; i < repoCount; i++) {
+            GitHubRepository repo = new GitHubRepository();
+            repo.setName(readString(record));
+            repo.setDescription(readString(record));
+            record.getLong();
+            repo.setRecentCommits(readCommits(record));
+            repositories.add(repo);
+        }
+        return repositories;
+    }
+
+    /**
+     * Get the recent commits for a repository, or an empty list if it is not in the snapshot
+     */
+    public List<GitHubCommit> getCommits(String username, String repoName) {
+        ByteBuffer record = seekRepository(username, repoName);
+        if (record == null) {
+            return new ArrayList<>();
+        }
+        record.getLong();
+        return readCommits(record);
+    }
+
+    /**
+     * Total number of commits the repository had in Redis when the snapshot was taken
+     */
+    public long getCommitTotal(String username, String repoName) {
+        ByteBuffer record = seekRepository(username, repoName);
+        return record != null ? record.getLong() : 0L;
+    }
+
+    /**
+     * Open a writer for a new snapshot. The snapshot only replaces the current one once published.
+     */
+    public Writer openWriter() throws IOException {
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new Writer(snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp"));
+    }
+
+    private void load() {
+        if (!Files.exists(snapshotPath)) {
+            logger.info("No local snapshot found at {}", snapshotPath);
+            return;
+        }
+        try {
+            current = map(snapshotPath);
+            logger.info("Loaded local snapshot from {} ({} users, created at {})",
+                    snapshotPath, current.offsets.size(), current.createdAtMillis);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable local snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private static Snapshot map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Unsupported snapshot size: " + size);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a snapshot file or unsupported version");
+            }
+            long createdAtMillis = header.getLong();
+            long indexOffset = header.getLong();
+            int userCount = header.getInt();
+            long regionSize = header.getLong();
+            int maxRecordSize = header.getInt();
+            if (indexOffset < HEADER_SIZE || indexOffset > size || userCount < 0
+                    || regionSize <= 0 || maxRecordSize < 0 || regionSize > Integer.MAX_VALUE - maxRecordSize) {
+                throw new IOException("Corrupt snapshot header");
+            }
+
+            // The mappings stay valid after the channel is closed
+            ByteBuffer[] regions = new ByteBuffer[(int) Math.max(1, (size + regionSize - 1) / regionSize)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = i * regionSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, start + regionSize + maxRecordSize) - start);
+            }
+
+            Snapshot snapshot = new Snapshot(regions, regionSize, createdAtMillis, new HashMap<>(userCount * 4 / 3 + 1));
+            long position = indexOffset;
+            for (int i = 0; i < userCount; i++) {
+                ByteBuffer entry = snapshot.viewAt(position);
+                int entryStart = entry.position();
+                String username = readString(entry);
+                long recordOffset = entry.getLong();
+                if (recordOffset < HEADER_SIZE || recordOffset >= indexOffset) {
+                    throw new IOException("Corrupt snapshot index entry for " + username);
+                }
+                snapshot.offsets.put(username, recordOffset);
+                position += entry.position() - entryStart;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Positioned view over a user's record; views are cheap and keep concurrent readers independent
+     */
+    private ByteBuffer recordFor(String username) {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            return null;
+        }
+        Long offset = snapshot.offsets.get(username);
+        return offset != null ? snapshot.viewAt(offset) : null;
+    }
+
+    /**
+     * Position a view just after the named repository's description, i.e. at its commit total
+     */
+    private ByteBuffer seekRepository(String username, String repoName) {
+        ByteBuffer record = recordFor(username);
+        if (record == null) {
+            return null;
+        }
+        skipString(record);
+        int repoCount = record.getInt();
+        for (int i = 0; i < repoCount; i++) {
+            String name = readString(record);
+            skipString(record);
+            if (repoName.equals(name)) {
+                return record;
+            }
+            record.getLong();
+            int commitCount = record.getInt();
+            for (int c = 0; c < commitCount; c++) {
+                skipString(record);
+                skipString(record);
+                record.position(record.position() + 8 + 4);
+            }
+        }
+        return null;
+    }
+
+    private static List<GitHubCommit> readCommits(ByteBuffer record) {
+        int commitCount = record.getInt();
+        if (commitCount == 0) {
+            return Collections.emptyList();
+        }
+        List<GitHubCommit> commits = new ArrayList<>(commitCount);
+        for (int c = 0; c < commitCount; c++) {
+            String message = readString(record);
+            String author = readString(record);
+            long epochSecond = record.getLong();
+            int nanos = record.getInt();
+            LocalDateTime timestamp = epochSecond == NULL_TIMESTAMP
+                    ? null
+                    : LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+            commits.add(new GitHubCommit(message, author, timestamp));
+        }
+        return commits;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static final class Snapshot {
+        private final ByteBuffer[] regions;
+        private final long regionSize;
+        private final long createdAtMillis;
+        private final Map<String, Long> offsets;
+
+        private Snapshot(ByteBuffer[] regions, long regionSize, long createdAtMillis, Map<String, Long> offsets) {
+            this.regions = regions;
+            this.regionSize = regionSize;
+            this.createdAtMillis = createdAtMillis;
+            this.offsets = offsets;
+        }
+
+        /**
+         * View positioned at a file offset, within the region that offset falls in
+         */
+        private ByteBuffer viewAt(long offset) {
+            int region = (int) (offset / regionSize);
+            ByteBuffer view = regions[region].duplicate();
+            view.position((int) (offset - region * regionSize));
+            return view;
+        }
+    }
+
+    /**
+     * Streams user records to a temporary file; {@link #publish()} maps and checks it, then atomically swaps it in.
+     * Each record is built in memory first so its size can be checked against the region layout.
+     */
+    public final class Writer implements AutoCloseable {
+        private final Path tempPath;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        private final DataOutputStream record = new DataOutputStream(recordBytes);
+        private final long maxRecordSizeLimit = Integer.MAX_VALUE - regionSize;
+        private final Map<String, Long> offsets = new HashMap<>();
+        private final long createdAtMillis = System.currentTimeMillis();
+        private long position = HEADER_SIZE;
+        private int maxRecordSize;
+        private boolean published;
+
+        private Writer(Path tempPath) throws IOException {
+            this.tempPath = tempPath;
+            this.channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            // Placeholder header, rewritten once the index offset is known
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        /**
+         * Append a user's record
+         * @param commitTotals total commit count per repository name, as stored in Redis
+         */
+        public void append(String username, String hashedPat, List<GitHubRepository> repositories,
+                           Map<String, Long> commitTotals) throws IOException {
+            offsets.put(username, position);
+            writeString(hashedPat);
+            record.writeInt(repositories.size());
+            for (GitHubRepository repo : repositories) {
+                writeString(repo.getName());
+                writeString(repo.getDescription());
+                List<GitHubCommit> commits = repo.getRecentCommits() != null ? repo.getRecentCommits() : List.of();
+                record.writeLong(commitTotals.getOrDefault(repo.getName(), (long) commits.size()));
+                record.writeInt(commits.size());
+                for (GitHubCommit commit : commits) {
+                    writeString(commit.getMessage());
+                    writeString(commit.getAuthor());
+                    LocalDateTime timestamp = commit.getTimestamp();
+                    record.writeLong(timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : NULL_TIMESTAMP);
+                    record.writeInt(timestamp != null ? timestamp.getNano() : 0);
+                }
+            }
+            writeRecord();
+        }
+
+        public int getUserCount() {
+            return offsets.size();
+        }
+
+        /**
+         * Write the index and header, check that the file maps back, then replace the current snapshot with it.
+         * On failure the previous snapshot file is left untouched.
+         */
+        public void publish() throws IOException {
+            long indexOffset = position;
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                writeString(entry.getKey());
+                record.writeLong(entry.getValue());
+                writeRecord();
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(createdAtMillis).putLong(indexOffset).putInt(offsets.size())
+                    .putLong(regionSize).putInt(maxRecordSize);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+            channel.close();
+
+            Snapshot snapshot;
+            try {
+                snapshot = map(tempPath);
+            } catch (RuntimeException e) {
+                throw new IOException("Written snapshot failed to map back: " + e.getMessage(), e);
+            }
+            if (snapshot.offsets.size() != offsets.size()) {
+                throw new IOException("Written snapshot has " + snapshot.offsets.size() + " users, expected " + offsets.size());
+            }
+            // The mapping survives the rename
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            current = snapshot;
+            published = true;
+            logger.info("Published local snapshot {} ({} users)", snapshotPath, offsets.size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!published) {
+                channel.close();
+                Files.deleteIfExists(tempPath);
+            }
+        }
+
+        /**
+         * Move the record built so far to the file
+         */
+        private void writeRecord() throws IOException {
+            int size = recordBytes.size();
+            if (size > maxRecordSizeLimit) {
+                throw new IOException("Snapshot record of " + size + " bytes exceeds the " + maxRecordSizeLimit + " byte limit");
+            }
+            recordBytes.writeTo(out);
+            recordBytes.reset();
+            position += size;
+            maxRecordSize = Math.max(maxRecordSize, size);
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                record.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            record.writeInt(bytes.length);
+            record.write(bytes);
+        }
+    }
+}
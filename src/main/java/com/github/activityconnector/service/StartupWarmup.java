@@ -0,0 +1,226 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.constants.RedisConstants;
+import com.github.activityconnector.model.FieldProjection;
+import com.github.activityconnector.model.GitHubCommit;
+import com.github.activityconnector.model.GitHubRepository;
+import com.github.activityconnector.model.PaginatedResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Brings a fresh instance up to speed before it reports ready.
+ * Runs as an {@link ApplicationRunner}, so the readiness state only becomes ACCEPTING_TRAFFIC once it finishes:
+ * it connects to Redis, loads Lua scripts, and drives the request hot paths until the JIT has compiled them.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    /**
+     * Header carrying a token known only to this process, which marks the warm-up's own HTTP requests
+     */
+    private static final String WARMUP_TOKEN_HEADER = "X-Warmup-Token";
+    private static final String WARMUP_TOKEN = UUID.randomUUID().toString();
+
+    // Enough to load and link the Redis read paths; the CPU-heavy parts are warmed in-process without round trips
+    private static final int REDIS_ITERATIONS = 20;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+    };
+
+    private final ApplicationContext applicationContext;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final List<RedisScript<?>> redisScripts;
+    private final RedisDataService redisDataService;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final ActivityJsonWriter activityJsonWriter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxDurationMillis;
+    private final String username;
+    private final boolean exitAfterWarmup;
+
+    public StartupWarmup(ApplicationContext applicationContext, StringRedisTemplate stringRedisTemplate,
+                         List<RedisScript<?>> redisScripts, RedisDataService redisDataService,
+                         RedisCircuitBreaker circuitBreaker, ActivityJsonWriter activityJsonWriter, ObjectMapper objectMapper,
+                         @Value("${activity.warmup.enabled:true}") boolean enabled,
+                         @Value("${activity.warmup.iterations:500}") int iterations,
+                         @Value("${activity.warmup.max-duration:20000}") long maxDurationMillis,
+                         @Value("${activity.warmup.username:__warmup__}") String username,
+                         @Value("${activity.warmup.exit-after-warmup:false}") boolean exitAfterWarmup) {
+        this.applicationContext = applicationContext;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisScripts = redisScripts;
+        this.redisDataService = redisDataService;
+        this.circuitBreaker = circuitBreaker;
+        this.activityJsonWriter = activityJsonWriter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDurationMillis = maxDurationMillis;
+        this.username = username;
+        this.exitAfterWarmup = exitAfterWarmup;
+    }
+
+    /**
+     * Whether a request was sent by the warm-up itself, so its expected failures need not be logged
+     */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        return WARMUP_TOKEN.equals(request.getHeader(WARMUP_TOKEN_HEADER));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            long start = System.currentTimeMillis();
+            long deadline = start + maxDurationMillis;
+            boolean redisAvailable = connectRedis();
+            warmHotPaths(deadline, redisAvailable);
+            // Synthetic reads must not leave the circuit open for real traffic
+            circuitBreaker.reset();
+            warmHttpStack(deadline);
+            logger.info("Warm-up completed in {}ms", System.currentTimeMillis() - start);
+        }
+        if (exitAfterWarmup) {
+            // Training run for an AppCDS archive: -XX:ArchiveClassesAtExit dumps on this exit
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * Open the shared Lettuce connection and load Lua scripts so the first EVALSHA does not miss
+     */
+    private boolean connectRedis() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.ping();
+                for (RedisScript<?> script : redisScripts) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            logger.info("Redis connection established, {} scripts loaded", redisScripts.size());
+            return true;
+        } catch (Exception e) {
+            logger.warn("Redis unavailable during warm-up: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drive projection parsing, streaming JSON and, if Redis is reachable, the first few rounds of the Redis read paths
+     * in-process.
+     * The synthetic page mirrors a full activity page: 20 repositories with 20 commits each.
+     */
+    private void warmHotPaths(long deadline, boolean redisAvailable) {
+        List<GitHubRepository> repositories = new ArrayList<>();
+        List<List<byte[]>> commits = new ArrayList<>();
+        for (int r = 0; r < RedisConstants.PAGE_SIZE; r++) {
+            GitHubRepository repo = activityJsonWriter.readRepositorySummary(
+                    ("{\"name\":\"warmup-" + r + "\",\"description\":\"warm-up\",\"recentCommits\":[]}").getBytes(StandardCharsets.UTF_8));
+            List<GitHubCommit> repoCommits = new ArrayList<>();
+            List<byte[]> rawRepoCommits = new ArrayList<>();
+            for (int c = 0; c < RedisConstants.PAGE_SIZE; c++) {
+                repoCommits.add(new GitHubCommit("warm-up " + c, "warmup", LocalDateTime.of(2024, 1, 15, 10, 30)));
+                rawRepoCommits.add(("{\"message\":\"warm-up " + c + "\",\"author\":\"warmup\",\"timestamp\":\"2024-01-15T10:30:00\"}")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            repo.setRecentCommits(repoCommits);
+            repositories.add(repo);
+            commits.add(rawRepoCommits);
+        }
+
+        int completed = 0;
+        try {
+            for (; completed < iterations && System.currentTimeMillis() < deadline; completed++) {
+                FieldProjection all = FieldProjection.forRepositories(null, null);
+                FieldProjection names = FieldProjection.forRepositories("name,recentCommits.message", "5");
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(DISCARD)) {
+                    activityJsonWriter.rawRepositoryPage(repositories, commits, 0, RedisConstants.PAGE_SIZE, repositories.size(), all)
+                            .writeTo(generator);
+                    activityJsonWriter.rawRepositoryPage(repositories, commits, 0, RedisConstants.PAGE_SIZE, repositories.size(), names)
+                            .writeTo(generator);
+                    activityJsonWriter.rawCommitPage(commits.get(0), 0, RedisConstants.PAGE_SIZE, RedisConstants.PAGE_SIZE,
+                            FieldProjection.forCommits(null)).writeTo(generator);
+
+                    // Pages built from model objects, as served from the local snapshot
+                    activityJsonWriter.repositoryPage(new PaginatedResponse<>(repositories, 0, RedisConstants.PAGE_SIZE,
+                            repositories.size()), names).writeTo(generator);
+                    activityJsonWriter.commitPage(new PaginatedResponse<>(repositories.get(0).getRecentCommits(), 0,
+                            RedisConstants.PAGE_SIZE, RedisConstants.PAGE_SIZE), FieldProjection.forCommits(null)).writeTo(generator);
+
+                    if (redisAvailable && completed < REDIS_ITERATIONS) {
+                        // Real round trips for a user that normally does not exist; PAT validation includes hashing
+                        redisDataService.isValidUserWithPat(username, "warmup");
+                        redisDataService.streamRepositories(username, 0, RedisConstants.PAGE_SIZE, all).writeTo(generator);
+                        redisDataService.streamCommits(username, "warmup", 0, RedisConstants.PAGE_SIZE, all).writeTo(generator);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Hot path warm-up stopped: {}", e.getMessage());
+        }
+        logger.debug("Hot path warm-up ran {} iterations", completed);
+    }
+
+    /**
+     * Send unauthenticated requests through Tomcat and the dispatcher. They are rejected before reaching Redis,
+     * so they do not count against anyone's rate limit, but they exercise routing, filters and error rendering.
+     */
+    private void warmHttpStack(long deadline) {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            return;
+        }
+        String baseUrl = "http://localhost:" + webContext.getWebServer().getPort() + "/api/v1";
+        HttpClient client = HttpClient.newHttpClient();
+        List<URI> uris = List.of(
+                URI.create(baseUrl + "/activity/" + username + "?fields=name&includeCommits=1"),
+                URI.create(baseUrl + "/commits/" + username + "/warmup?page=0"));
+
+        int requests = 0;
+        try {
+            for (; requests < iterations / 5 && System.currentTimeMillis() < deadline; requests++) {
+                client.send(HttpRequest.newBuilder(uris.get(requests % uris.size()))
+                                .header(WARMUP_TOKEN_HEADER, WARMUP_TOKEN).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+            }
+        } catch (IOException e) {
+            logger.warn("HTTP warm-up stopped: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.debug("HTTP warm-up sent {} requests", requests);
+    }
+}
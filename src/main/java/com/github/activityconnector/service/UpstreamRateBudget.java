@@ -0,0 +1,85 @@
+package com.github.activityconnector.service;
+
+import com.github.activityconnector.config.SyncProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpHeaders;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upstream API request budget shared by all sync workers.
+ * Tracks {@code X-RateLimit-Remaining}/{@code X-RateLimit-Reset} from every response and keeps a reserve
+ * untouched so interactive use of the same token is not starved.
+ */
+@Component
+public class UpstreamRateBudget {
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRateBudget.class);
+
+    private static final int UNKNOWN = -1;
+
+    private final int reserve;
+    private final AtomicInteger remaining = new AtomicInteger(UNKNOWN);
+    private volatile long resetAtMillis;
+
+    public UpstreamRateBudget(SyncProperties syncProperties) {
+        this.reserve = syncProperties.getRateLimitReserve();
+    }
+
+    /**
+     * Take one request from the budget
+     * @return false if the budget is down to the reserve until the next reset
+     */
+    public boolean tryAcquire() {
+        refreshIfReset();
+        while (true) {
+            int current = remaining.get();
+            if (current == UNKNOWN) {
+                return true;
+            }
+            if (current <= reserve) {
+                return false;
+            }
+            if (remaining.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Requests that may still be made before the reserve is reached; unbounded until the first response is seen
+     */
+    public int available() {
+        refreshIfReset();
+        int current = remaining.get();
+        return current == UNKNOWN ? Integer.MAX_VALUE : Math.max(0, current - reserve);
+    }
+
+    public long getResetAtMillis() {
+        return resetAtMillis;
+    }
+
+    public void update(HttpHeaders headers) {
+        headers.firstValueAsLong("X-RateLimit-Reset").ifPresent(reset -> resetAtMillis = reset * 1000);
+        headers.firstValueAsLong("X-RateLimit-Remaining").ifPresent(value -> remaining.set((int) value));
+    }
+
+    /**
+     * Treat the budget as empty until the given time, e.g. after a 403/429 from upstream
+     */
+    public void exhaust(long untilMillis) {
+        resetAtMillis = untilMillis;
+        remaining.set(0);
+        logger.warn("Upstream rate limit exhausted until {}", untilMillis);
+    }
+
+    private void refreshIfReset() {
+        long reset = resetAtMillis;
+        if (reset != 0 && System.currentTimeMillis() >= reset) {
+            // The window rolled over; the next response tells us the new remaining count
+            remaining.set(UNKNOWN);
+            resetAtMillis = 0;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Atomically claim users whose next sync is due by pushing their score out to the lease deadline.
+-- KEYS[1] = schedule sorted set, ARGV[1] = now (ms), ARGV[2] = max users, ARGV[3] = lease deadline (ms)
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+for _, username in ipairs(due) do
+    redis.call('ZADD', KEYS[1], ARGV[3], username)
+end
+return due
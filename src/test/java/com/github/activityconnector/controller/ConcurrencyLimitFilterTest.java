@@ -0,0 +1,146 @@
+package com.github.activityconnector.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.exception.GlobalExceptionHandler;
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter;
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.FilterChain;
+import org.apache.catalina.connector.ClientAbortException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks how {@link ConcurrencyLimitFilter} admits requests and reports their outcome to the limiter
+ */
+class ConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitFilter filter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        limiter = mock(AdaptiveConcurrencyLimiter.class);
+        when(limiter.tryAcquire(any())).thenReturn(true);
+        filter = new ConcurrencyLimitFilter(limiter, new ObjectMapper(), true, 2);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void rejectsWith503AndRetryAfterWhenAtLimit() throws Exception {
+        when(limiter.tryAcquire(any())).thenReturn(false);
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(activityRequest(), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getContentAsString()).contains("\"status\":503").contains("\"retryAfterSeconds\":2");
+        verifyNoInteractions(chain);
+        verify(limiter).tryAcquire(Priority.LOW);
+        verifyNoMoreInteractions(limiter);
+    }
+
+    @Test
+    void commitPagesTakePriorityOverActivityPages() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/commits/alice/api"), response, (req, res) -> {});
+        filter.doFilter(activityRequest(), new MockHttpServletResponse(), (req, res) -> {});
+
+        verify(limiter).tryAcquire(Priority.HIGH);
+        verify(limiter).tryAcquire(Priority.LOW);
+    }
+
+    @Test
+    void successfulRequestReportsItsLatency() throws Exception {
+        filter.doFilter(activityRequest(), response, (req, res) -> {});
+
+        verify(limiter).onSuccess(anyLong());
+        verify(limiter, never()).onIgnore();
+        verify(limiter, never()).onDropped();
+    }
+
+    @Test
+    void clientErrorsAreIgnored() throws Exception {
+        for (int status : new int[] {400, 401, 404, 429}) {
+            MockHttpServletResponse clientError = new MockHttpServletResponse();
+            filter.doFilter(activityRequest(), clientError, (req, res) -> clientError.setStatus(status));
+        }
+
+        verify(limiter, times(4)).onIgnore();
+        verify(limiter, never()).onSuccess(anyLong());
+        verify(limiter, never()).onDropped();
+    }
+
+    @Test
+    void serverErrorIsDropped() throws Exception {
+        filter.doFilter(activityRequest(), response, (req, res) -> response.setStatus(500));
+
+        verify(limiter).onDropped();
+        verify(limiter, never()).onIgnore();
+    }
+
+    @Test
+    void escapingExceptionIsDropped() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new IllegalStateException("boom")).when(chain).doFilter(any(), any());
+
+        assertThatThrownBy(() -> filter.doFilter(activityRequest(), response, chain)).isInstanceOf(IllegalStateException.class);
+
+        verify(limiter).onDropped();
+    }
+
+    @Test
+    void clientAbortIsIgnored() throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new IOException("write failed", new ClientAbortException("Broken pipe"))).when(chain).doFilter(any(), any());
+
+        assertThatThrownBy(() -> filter.doFilter(activityRequest(), response, chain)).isInstanceOf(IOException.class);
+
+        verify(limiter).onIgnore();
+        verify(limiter, never()).onDropped();
+    }
+
+    @Test
+    void clientAbortHandledByExceptionHandlerIsIgnored() throws Exception {
+        MockHttpServletRequest request = activityRequest();
+
+        filter.doFilter(request, response,
+                (req, res) -> req.setAttribute(GlobalExceptionHandler.CLIENT_ABORTED_ATTRIBUTE, Boolean.TRUE));
+
+        verify(limiter).onIgnore();
+        verify(limiter, never()).onSuccess(anyLong());
+    }
+
+    @Test
+    void disabledFilterPassesEverythingThrough() throws Exception {
+        ConcurrencyLimitFilter disabled = new ConcurrencyLimitFilter(limiter, new ObjectMapper(), false, 1);
+        FilterChain chain = mock(FilterChain.class);
+
+        disabled.doFilter(activityRequest(), response, chain);
+
+        verify(chain).doFilter(any(), any());
+        verifyNoInteractions(limiter);
+    }
+
+    private static MockHttpServletRequest activityRequest() {
+        return new MockHttpServletRequest("GET", "/api/v1/activity/alice");
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.activityconnector.model;
+
+import com.github.activityconnector.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parsing of the {@code fields} and {@code includeCommits} query parameters
+ */
+class FieldProjectionTest {
+
+    @Test
+    void everythingIsIncludedByDefault() {
+        FieldProjection projection = FieldProjection.forRepositories(null, null);
+
+        assertThat(projection.includesName()).isTrue();
+        assertThat(projection.includesDescription()).isTrue();
+        assertThat(projection.getCommitLimit()).isEqualTo(20);
+        assertThat(projection.includesMessage()).isTrue();
+        assertThat(projection.includesAuthor()).isTrue();
+        assertThat(projection.includesTimestamp()).isTrue();
+    }
+
+    @Test
+    void repositoryFieldsWithoutCommitsOmitCommits() {
+        FieldProjection projection = FieldProjection.forRepositories("name", "5");
+
+        assertThat(projection.includesName()).isTrue();
+        assertThat(projection.includesDescription()).isFalse();
+        assertThat(projection.getCommitLimit()).isZero();
+    }
+
+    @Test
+    void commitFieldsSelectCommitsAndOnlyThoseFields() {
+        FieldProjection projection = FieldProjection.forRepositories(" name , recentCommits.message,recentCommits.timestamp", "5");
+
+        assertThat(projection.includesName()).isTrue();
+        assertThat(projection.includesDescription()).isFalse();
+        assertThat(projection.getCommitLimit()).isEqualTo(5);
+        assertThat(projection.includesMessage()).isTrue();
+        assertThat(projection.includesAuthor()).isFalse();
+        assertThat(projection.includesTimestamp()).isTrue();
+    }
+
+    @Test
+    void recentCommitsAloneIncludesEveryCommitField() {
+        FieldProjection projection = FieldProjection.forRepositories("recentCommits", null);
+
+        assertThat(projection.includesName()).isFalse();
+        assertThat(projection.getCommitLimit()).isEqualTo(20);
+        assertThat(projection.includesMessage()).isTrue();
+        assertThat(projection.includesAuthor()).isTrue();
+        assertThat(projection.includesTimestamp()).isTrue();
+    }
+
+    @Test
+    void includeCommitsAcceptsBooleansAndCounts() {
+        assertThat(FieldProjection.forRepositories(null, "true").getCommitLimit()).isEqualTo(20);
+        assertThat(FieldProjection.forRepositories(null, "FALSE").getCommitLimit()).isZero();
+        assertThat(FieldProjection.forRepositories(null, "0").getCommitLimit()).isZero();
+        assertThat(FieldProjection.forRepositories(null, " 3 ").getCommitLimit()).isEqualTo(3);
+        // Capped at the number of commits a page carries
+        assertThat(FieldProjection.forRepositories(null, "1000").getCommitLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void negativeOrNonNumericIncludeCommitsIsRejected() {
+        assertThatThrownBy(() -> FieldProjection.forRepositories(null, "-1"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("negative");
+        assertThatThrownBy(() -> FieldProjection.forRepositories(null, "some"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        assertThatThrownBy(() -> FieldProjection.forRepositories("name,stars", null))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Unknown field: stars");
+        assertThatThrownBy(() -> FieldProjection.forRepositories("recentCommits.sha", null))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Unknown commit field: sha");
+        assertThatThrownBy(() -> FieldProjection.forCommits("message,name"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Unknown commit field: name");
+    }
+
+    @Test
+    void commitPagesSelectCommitFields() {
+        assertThat(FieldProjection.forCommits(null)).isSameAs(FieldProjection.ALL);
+        assertThat(FieldProjection.forCommits(" ")).isSameAs(FieldProjection.ALL);
+
+        FieldProjection projection = FieldProjection.forCommits("author");
+        assertThat(projection.includesMessage()).isFalse();
+        assertThat(projection.includesAuthor()).isTrue();
+        assertThat(projection.includesTimestamp()).isFalse();
+        assertThat(projection.includesName()).isFalse();
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.activityconnector.model.FieldProjection;
+import com.github.activityconnector.model.GitHubCommit;
+import com.github.activityconnector.model.GitHubRepository;
+import com.github.activityconnector.model.PaginatedResponse;
+import com.github.activityconnector.model.StreamingPage;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams pages through {@link ActivityJsonWriter} and checks the JSON that comes out
+ */
+class ActivityJsonWriterTest {
+
+    // Values as written by GenericJackson2JsonRedisSerializer
+    private static final String RAW_COMMIT = "{\"@class\":\"com.github.activityconnector.model.GitHubCommit\","
+            + "\"message\":\"Fix auth\",\"author\":\"alice\",\"timestamp\":\"2024-01-15T10:30:00\"}";
+    private static final String RAW_REPOSITORY = "{\"@class\":\"com.github.activityconnector.model.GitHubRepository\","
+            + "\"name\":\"api\",\"recentCommits\":[\"java.util.ArrayList\",[]],\"description\":\"REST API\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ActivityJsonWriter writer = new ActivityJsonWriter(objectMapper);
+
+    @Test
+    void repositorySummaryIgnoresTypeInfoAndNestedValues() {
+        GitHubRepository repo = writer.readRepositorySummary(bytes(RAW_REPOSITORY));
+
+        assertThat(repo.getName()).isEqualTo("api");
+        assertThat(repo.getDescription()).isEqualTo("REST API");
+    }
+
+    @Test
+    void malformedRepositorySummaryIsNull() {
+        assertThat(writer.readRepositorySummary(bytes("[\"not\",\"an\",\"object\"]"))).isNull();
+        assertThat(writer.readRepositorySummary(bytes("{\"name\":"))).isNull();
+    }
+
+    @Test
+    void rawCommitsCopyProjectedScalarFieldsOnly() throws IOException {
+        String nested = "{\"message\":\"nested\",\"author\":{\"login\":\"alice\"},\"extra\":[1,2],\"timestamp\":null}";
+
+        JsonNode json = write(writer.rawCommitPage(List.of(bytes(RAW_COMMIT), bytes(nested)), 0, 20, 2,
+                FieldProjection.forCommits("message,author,timestamp")));
+
+        assertThat(json.get("data")).hasSize(2);
+        assertThat(json.get("data").get(0).toString())
+                .isEqualTo("{\"message\":\"Fix auth\",\"author\":\"alice\",\"timestamp\":\"2024-01-15T10:30:00\"}");
+        assertThat(json.get("data").get(1).toString()).isEqualTo("{\"message\":\"nested\",\"timestamp\":null}");
+    }
+
+    @Test
+    void rawCommitsHonourProjection() throws IOException {
+        JsonNode json = write(writer.rawCommitPage(List.of(bytes(RAW_COMMIT)), 0, 20, 1, FieldProjection.forCommits("author")));
+
+        assertThat(json.get("data").get(0).toString()).isEqualTo("{\"author\":\"alice\"}");
+    }
+
+    @Test
+    void rawValuesThatAreNotObjectsAreSkipped() throws IOException {
+        List<byte[]> raw = List.of(bytes("\"just a string\""), bytes("42"), bytes(RAW_COMMIT), bytes("[\"x\"]"));
+
+        JsonNode json = write(writer.rawCommitPage(raw, 0, 20, 4, FieldProjection.ALL));
+
+        assertThat(json.get("data")).hasSize(1);
+        assertThat(json.get("data").get(0).get("message").asText()).isEqualTo("Fix auth");
+        // The envelope still reflects what Redis holds
+        assertThat(json.get("totalElements").asLong()).isEqualTo(4);
+    }
+
+    @Test
+    void commitMalformedPartWayIsClosedWithFieldsCopiedSoFar() throws IOException {
+        JsonNode json = write(writer.rawCommitPage(List.of(bytes("{\"message\":\"cut\",\"author\":"), bytes(RAW_COMMIT)),
+                0, 20, 2, FieldProjection.ALL));
+
+        assertThat(json.get("data")).hasSize(2);
+        assertThat(json.get("data").get(0).toString()).isEqualTo("{\"message\":\"cut\"}");
+        assertThat(json.get("data").get(1).get("author").asText()).isEqualTo("alice");
+    }
+
+    @Test
+    void rawAndSnapshotRepositoryPagesHaveTheSameShape() throws IOException {
+        GitHubRepository summary = writer.readRepositorySummary(bytes(RAW_REPOSITORY));
+        List<byte[]> storedCommits = List.of(bytes(RAW_COMMIT), bytes(RAW_COMMIT), bytes(RAW_COMMIT), bytes(RAW_COMMIT), bytes(RAW_COMMIT));
+
+        GitHubRepository snapshotRepo = new GitHubRepository();
+        snapshotRepo.setName("api");
+        snapshotRepo.setDescription("REST API");
+        GitHubCommit commit = new GitHubCommit("Fix auth", "alice", LocalDateTime.parse("2024-01-15T10:30:00"));
+        snapshotRepo.setRecentCommits(List.of(commit, commit, commit, commit, commit));
+
+        for (FieldProjection projection : List.of(
+                FieldProjection.ALL,
+                FieldProjection.forRepositories("name,recentCommits.message", "3"),
+                FieldProjection.forRepositories("description", null))) {
+            // Redis is asked for the first commitLimit commits of each repository
+            List<byte[]> rawCommits = storedCommits.subList(0, Math.min(projection.getCommitLimit(), storedCommits.size()));
+            JsonNode raw = write(writer.rawRepositoryPage(List.of(summary), List.of(rawCommits), 1, 20, 21, projection));
+
+            PaginatedResponse<GitHubRepository> stale = new PaginatedResponse<>(List.of(snapshotRepo), 1, 20, 21);
+            stale.setStale(true);
+            JsonNode fromSnapshot = write(writer.repositoryPage(stale, projection));
+
+            assertThat(raw.has("stale")).isFalse();
+            assertThat(fromSnapshot.get("stale").asBoolean()).isTrue();
+            ((ObjectNode) fromSnapshot).remove("stale");
+            assertThat(raw).isEqualTo(fromSnapshot);
+            assertThat(raw.get("totalPages").asInt()).isEqualTo(2);
+            assertThat(raw.get("hasNext").asBoolean()).isFalse();
+            assertThat(raw.get("hasPrevious").asBoolean()).isTrue();
+        }
+    }
+
+    @Test
+    void rawAndSnapshotCommitPagesHaveTheSameShape() throws IOException {
+        GitHubCommit commit = new GitHubCommit("Fix auth", "alice", LocalDateTime.parse("2024-01-15T10:30:00"));
+        PaginatedResponse<GitHubCommit> stale = new PaginatedResponse<>(List.of(commit), 0, 20, 45);
+        stale.setStale(true);
+        FieldProjection projection = FieldProjection.forCommits("timestamp,message");
+
+        JsonNode raw = write(writer.rawCommitPage(List.of(bytes(RAW_COMMIT)), 0, 20, 45, projection));
+        JsonNode fromSnapshot = write(writer.commitPage(stale, projection));
+
+        ((ObjectNode) fromSnapshot).remove("stale");
+        assertThat(raw).isEqualTo(fromSnapshot);
+        assertThat(raw.get("hasNext").asBoolean()).isTrue();
+    }
+
+    @Test
+    void streamedEnvelopeMatchesPaginatedResponse() throws IOException {
+        PaginatedResponse<GitHubCommit> response = new PaginatedResponse<>(List.of(), 2, 20, 45);
+
+        JsonNode streamed = write(writer.commitPage(response, FieldProjection.ALL));
+        ObjectNode serialized = (ObjectNode) objectMapper.readTree(objectMapper.writeValueAsString(response));
+        serialized.remove("stale");
+
+        assertThat(streamed).isEqualTo(serialized);
+    }
+
+    private JsonNode write(StreamingPage page) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            page.writeTo(generator);
+        }
+        return objectMapper.readTree(out.toString());
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
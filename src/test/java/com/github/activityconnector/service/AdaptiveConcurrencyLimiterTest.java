@@ -0,0 +1,151 @@
+package com.github.activityconnector.service;
+
+import com.github.activityconnector.config.ConcurrencyLimitProperties;
+import com.github.activityconnector.service.AdaptiveConcurrencyLimiter.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@link AdaptiveConcurrencyLimiter} with a zero-length window, so every completed request closes a window
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setWindow(Duration.ZERO);
+        properties.setMinWindowSamples(1);
+        properties.setInitialLimit(20);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(200);
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysWithinTolerance() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        runAtCapacity(limiter, FAST, 3);
+        int afterWarmup = limiter.getStats().limit();
+        assertThat(afterWarmup).isGreaterThan(20);
+
+        // 1.4x the long-term latency is still under the 1.5x tolerance
+        int previous = afterWarmup;
+        for (int round = 0; round < 5; round++) {
+            runAtCapacity(limiter, FAST * 14 / 10, 1);
+            int limit = limiter.getStats().limit();
+            assertThat(limit).isGreaterThanOrEqualTo(previous);
+            previous = limit;
+        }
+        assertThat(previous).isGreaterThan(afterWarmup).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    void limitStopsAtMaximum() {
+        properties.setMaxLimit(30);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        runAtCapacity(limiter, FAST, 20);
+
+        assertThat(limiter.getStats().limit()).isEqualTo(30);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyExceedsTolerance() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        runAtCapacity(limiter, FAST, 3);
+        int beforeQueueing = limiter.getStats().limit();
+
+        runAtCapacity(limiter, FAST * 5, 1);
+
+        assertThat(limiter.getStats().limit()).isLessThan(beforeQueueing);
+        assertThat(limiter.getStats().shortRttMillis()).isGreaterThan(properties.getRttTolerance() * limiter.getStats().longRttMillis());
+    }
+
+    @Test
+    void limitIsUnchangedWhileDemandIsWellBelowIt() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire(Priority.HIGH)).isTrue();
+            limiter.onSuccess(FAST);
+        }
+
+        assertThat(limiter.getStats().limit()).isEqualTo(20);
+    }
+
+    @Test
+    void dropBacksLimitOffMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        assertThat(limiter.tryAcquire(Priority.HIGH)).isTrue();
+        limiter.onDropped();
+        assertThat(limiter.getStats().limit()).isEqualTo(18);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire(Priority.HIGH)).isTrue();
+            limiter.onDropped();
+        }
+        assertThat(limiter.getStats().limit()).isEqualTo(4);
+        assertThat(limiter.getStats().dropped()).isEqualTo(51);
+        assertThat(limiter.getStats().inFlight()).isZero();
+    }
+
+    @Test
+    void ignoredRequestsReleaseTheirSlotWithoutMovingTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire(Priority.HIGH)).isTrue();
+            limiter.onIgnore();
+        }
+
+        assertThat(limiter.getStats().limit()).isEqualTo(20);
+        assertThat(limiter.getStats().inFlight()).isZero();
+        assertThat(limiter.getStats().dropped()).isZero();
+    }
+
+    @Test
+    void lowPriorityIsCappedAtItsShareOfTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        for (int i = 0; i < 16; i++) {
+            assertThat(limiter.tryAcquire(Priority.LOW)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(Priority.LOW)).isFalse();
+
+        // High-priority requests can still use the rest of the limit
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire(Priority.HIGH)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(Priority.HIGH)).isFalse();
+
+        AdaptiveConcurrencyLimiter.Stats stats = limiter.getStats();
+        assertThat(stats.inFlight()).isEqualTo(20);
+        assertThat(stats.admitted()).isEqualTo(20);
+        assertThat(stats.rejectedLow()).isEqualTo(1);
+        assertThat(stats.rejectedHigh()).isEqualTo(1);
+    }
+
+    /**
+     * Fill the current limit, then complete every request with the given latency
+     */
+    private static void runAtCapacity(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire(Priority.HIGH)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.onSuccess(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.config.SyncProperties;
+import com.github.activityconnector.exception.UpstreamSyncException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs {@link GitHubApiClient} against a local stub of the upstream API
+ */
+class GitHubApiClientTest {
+
+    private HttpServer server;
+    private final Map<String, StubResponse> responses = new HashMap<>();
+    private final List<String> requestedUris = new ArrayList<>();
+    private final List<String> ifNoneMatchHeaders = new ArrayList<>();
+
+    private SyncProperties syncProperties;
+    private UpstreamRateBudget rateBudget;
+    private GitHubApiClient client;
+
+    private record StubResponse(int status, String body, Map<String, String> headers) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        syncProperties = new SyncProperties();
+        syncProperties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        syncProperties.setRateLimitReserve(10);
+        rateBudget = new UpstreamRateBudget(syncProperties);
+        client = new GitHubApiClient(HttpClient.newHttpClient(), new ObjectMapper(), rateBudget, syncProperties);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void listsRepositoriesByPushTimeAndFollowsLinks() {
+        stub("/users/alice/repos?sort=pushed&direction=desc&per_page=100", 200,
+                "[{\"name\":\"b\",\"description\":\"second\",\"pushed_at\":\"2024-02-01T00:00:00Z\"}]",
+                Map.of("ETag", "\"page1\"", "Link", link("/users/alice/repos?page=2")));
+        stub("/users/alice/repos?page=2", 200,
+                "[{\"name\":\"a\",\"description\":null,\"pushed_at\":\"2024-01-01T00:00:00Z\"}]",
+                Map.of("ETag", "\"page2\""));
+
+        GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamRepository>> fetch = client.fetchRepositories("alice", null);
+
+        assertThat(fetch.body()).containsExactly(
+                new GitHubApiClient.UpstreamRepository("b", "second", "2024-02-01T00:00:00Z"),
+                new GitHubApiClient.UpstreamRepository("a", null, "2024-01-01T00:00:00Z"));
+        assertThat(fetch.etag()).isEqualTo("\"page1\"");
+        assertThat(fetch.complete()).isTrue();
+        assertThat(requestedUris).hasSize(2);
+    }
+
+    @Test
+    void unchangedRepositoryListingIsNotModified() {
+        stub("/users/alice/repos?sort=pushed&direction=desc&per_page=100", 304, "", Map.of());
+
+        GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamRepository>> fetch = client.fetchRepositories("alice", "\"etag\"");
+
+        assertThat(fetch.notModified()).isTrue();
+        assertThat(fetch.body()).isNull();
+        assertThat(fetch.etag()).isEqualTo("\"etag\"");
+        assertThat(ifNoneMatchHeaders).containsExactly("\"etag\"");
+    }
+
+    @Test
+    void repositoryListingCutOffAtMaxPagesIsIncomplete() {
+        syncProperties.setMaxRepoPages(1);
+        stub("/users/alice/repos?sort=pushed&direction=desc&per_page=100", 200,
+                "[{\"name\":\"a\"}]", Map.of("Link", link("/users/alice/repos?page=2")));
+
+        GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamRepository>> fetch = client.fetchRepositories("alice", null);
+
+        assertThat(fetch.body()).hasSize(1);
+        assertThat(fetch.complete()).isFalse();
+        assertThat(requestedUris).hasSize(1);
+    }
+
+    @Test
+    void followsCommitPagesUpToLimit() {
+        stub("/repos/alice/a/commits?per_page=4&since=2024-01-01T00:00:00Z", 200,
+                "[" + commit("c5", "2024-01-05T00:00:00Z", "2024-01-05T00:00:00Z") + ","
+                        + commit("c4", "2024-01-04T00:00:00Z", "2024-01-04T00:00:00Z") + ","
+                        + commit("c3", "2024-01-03T00:00:00Z", "2024-01-03T00:00:00Z") + "]",
+                Map.of("ETag", "\"commits\"", "Link", link("/repos/alice/a/commits?page=2")));
+        stub("/repos/alice/a/commits?page=2", 200,
+                "[" + commit("c2", "2024-01-02T00:00:00Z", "2024-01-02T00:00:00Z") + ","
+                        + commit("c1", "2024-01-01T00:00:00Z", "2024-01-01T00:00:00Z") + "]",
+                Map.of("Link", link("/repos/alice/a/commits?page=3")));
+
+        GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamCommit>> fetch =
+                client.fetchCommits("alice", "a", Instant.parse("2024-01-01T00:00:00Z"), null, 4);
+
+        assertThat(fetch.body()).extracting(commit -> commit.commit().getMessage())
+                .containsExactly("c5", "c4", "c3", "c2");
+        assertThat(fetch.etag()).isEqualTo("\"commits\"");
+        assertThat(fetch.complete()).isFalse();
+        assertThat(requestedUris).hasSize(2);
+    }
+
+    @Test
+    void commitKeepsAuthorDateAndCommitterDate() {
+        stub("/repos/alice/a/commits?per_page=100", 200,
+                "[" + commit("rebased", "2024-01-01T10:00:00Z", "2024-03-01T12:00:00Z") + "]", Map.of());
+
+        GitHubApiClient.Fetch<List<GitHubApiClient.UpstreamCommit>> fetch = client.fetchCommits("alice", "a", null, null, 500);
+
+        GitHubApiClient.UpstreamCommit commit = fetch.body().get(0);
+        assertThat(commit.sha()).isEqualTo("rebased-sha");
+        assertThat(commit.commit().getAuthor()).isEqualTo("alice");
+        assertThat(commit.commit().getTimestamp()).isEqualTo(LocalDateTime.parse("2024-01-01T10:00:00"));
+        assertThat(commit.committedAt()).isEqualTo(Instant.parse("2024-03-01T12:00:00Z"));
+        assertThat(fetch.complete()).isTrue();
+    }
+
+    @Test
+    void malformedCommitDateFailsTheFetch() {
+        stub("/repos/alice/a/commits?per_page=100", 200,
+                "[" + commit("bad", "yesterday", "yesterday") + "]", Map.of());
+
+        assertThatThrownBy(() -> client.fetchCommits("alice", "a", null, null, 100))
+                .isInstanceOfSatisfying(UpstreamSyncException.class, e -> assertThat(e.isRateLimited()).isFalse());
+    }
+
+    @Test
+    void emptyRepositoryIsMissing() {
+        stub("/repos/alice/a/commits?per_page=100", 409, "{\"message\":\"Git Repository is empty.\"}", Map.of());
+
+        assertThat(client.fetchCommits("alice", "a", null, null, 100).notFound()).isTrue();
+    }
+
+    @Test
+    void forbiddenWithNoRemainingRequestsExhaustsBudget() {
+        long resetAt = Instant.now().plusSeconds(600).getEpochSecond();
+        stub("/users/alice/repos?sort=pushed&direction=desc&per_page=100", 403, "{}",
+                Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetAt)));
+
+        assertThatThrownBy(() -> client.fetchRepositories("alice", null))
+                .isInstanceOfSatisfying(UpstreamSyncException.class, e -> assertThat(e.isRateLimited()).isTrue());
+        assertThat(rateBudget.available()).isZero();
+        assertThat(rateBudget.getResetAtMillis()).isEqualTo(resetAt * 1000);
+    }
+
+    @Test
+    void tooManyRequestsExhaustsBudgetForRetryAfter() {
+        stub("/users/alice/repos?sort=pushed&direction=desc&per_page=100", 429, "{}", Map.of("Retry-After", "120"));
+
+        long before = System.currentTimeMillis();
+        assertThatThrownBy(() -> client.fetchRepositories("alice", null))
+                .isInstanceOfSatisfying(UpstreamSyncException.class, e -> assertThat(e.isRateLimited()).isTrue());
+        assertThat(rateBudget.available()).isZero();
+        assertThat(rateBudget.getResetAtMillis()).isGreaterThanOrEqualTo(before + 120_000);
+
+        // No further request is sent while the budget is exhausted
+        assertThatThrownBy(() -> client.fetchRepositories("alice", null)).isInstanceOf(UpstreamSyncException.class);
+        assertThat(requestedUris).hasSize(1);
+    }
+
+    @Test
+    void budgetKeepsReserve() {
+        stub("/users/alice/repos?sort=pushed&direction=desc&per_page=100", 200, "[]",
+                Map.of("X-RateLimit-Remaining", "11", "X-RateLimit-Reset", String.valueOf(Instant.now().plusSeconds(600).getEpochSecond())));
+
+        client.fetchRepositories("alice", null);
+
+        assertThat(rateBudget.available()).isEqualTo(1);
+        assertThat(rateBudget.tryAcquire()).isTrue();
+        assertThat(rateBudget.tryAcquire()).isFalse();
+    }
+
+    private void stub(String pathAndQuery, int status, String body, Map<String, String> headers) {
+        responses.put(pathAndQuery, new StubResponse(status, body, headers));
+    }
+
+    private String link(String pathAndQuery) {
+        return "<" + syncProperties.getBaseUrl() + pathAndQuery + ">; rel=\"next\"";
+    }
+
+    private static String commit(String message, String authoredAt, String committedAt) {
+        return "{\"sha\":\"" + message + "-sha\",\"author\":{\"login\":\"alice\"},\"commit\":{\"message\":\"" + message + "\","
+                + "\"author\":{\"name\":\"Alice\",\"date\":\"" + authoredAt + "\"},"
+                + "\"committer\":{\"name\":\"GitHub\",\"date\":\"" + committedAt + "\"}}}";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String uri = exchange.getRequestURI().toString();
+        requestedUris.add(uri);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            ifNoneMatchHeaders.add(ifNoneMatch);
+        }
+
+        StubResponse response = responses.getOrDefault(uri, new StubResponse(404, "{}", Map.of()));
+        response.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
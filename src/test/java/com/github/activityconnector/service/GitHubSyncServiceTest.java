@@ -0,0 +1,258 @@
+package com.github.activityconnector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.activityconnector.config.SyncProperties;
+import com.github.activityconnector.model.GitHubCommit;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link GitHubSyncService#syncUser} against a local stub of the upstream API; it makes no Redis calls
+ */
+class GitHubSyncServiceTest {
+
+    private static final String LISTING = "/users/alice/repos?sort=pushed&direction=desc&per_page=100";
+    private static final String PUSHED_AT = "2024-03-01T00:00:00Z";
+
+    private HttpServer server;
+    private final Map<String, StubResponse> responses = new HashMap<>();
+    private final List<String> requestedUris = new ArrayList<>();
+    private final List<String> ifNoneMatchHeaders = new ArrayList<>();
+
+    private SyncProperties syncProperties;
+    private GitHubSyncService syncService;
+
+    private record StubResponse(int status, String body, Map<String, String> headers) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        syncProperties = new SyncProperties();
+        syncProperties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        syncProperties.setRateLimitReserve(0);
+        syncProperties.setMaxConcurrency(1);
+        syncProperties.setMaxCommitsPerRepo(100);
+        UpstreamRateBudget rateBudget = new UpstreamRateBudget(syncProperties);
+        GitHubApiClient client = new GitHubApiClient(HttpClient.newHttpClient(), new ObjectMapper(), rateBudget, syncProperties);
+        syncService = new GitHubSyncService(client, rateBudget, new StringRedisTemplate(), new ObjectMapper(),
+                new RedisCircuitBreaker(5, 30000), RedisScript.of("return {}", List.class), syncProperties);
+    }
+
+    @AfterEach
+    void stopServer() {
+        syncService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void firstSyncReplacesCommitListAndRecordsCursor() {
+        Instant committedAt = Instant.now().minus(Duration.ofDays(1)).truncatedTo(ChronoUnit.SECONDS);
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of("ETag", "\"repos\""));
+        stub("/repos/alice/api/commits?per_page=100", 200,
+                "[" + commit("c2", committedAt) + "," + commit("c1", committedAt.minus(Duration.ofDays(30))) + "]", Map.of());
+
+        long before = System.currentTimeMillis();
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of());
+
+        assertThat(result.repositories).extracting(GitHubApiClient.UpstreamRepository::name).containsExactly("api");
+        assertThat(messages(result, "api")).containsExactly("c2", "c1");
+        assertThat(result.replacedCommitLists).containsExactly("api");
+        assertThat(result.stateUpdates)
+                .containsEntry("pushed_at:api", PUSHED_AT)
+                .containsEntry("repos_etag", "\"repos\"")
+                // c1 is older than the overlap, so the next sync will not list it again
+                .containsEntry("seen:api", "c2-sha");
+        assertThat(Instant.parse(result.stateUpdates.get("synced_at:api"))).isAfterOrEqualTo(Instant.ofEpochMilli(before));
+        assertThat(result.interval).isEqualTo(syncProperties.getMinInterval().toMillis());
+    }
+
+    @Test
+    void laterSyncOverlapsPreviousSyncAndPrependsOnlyUnseenCommits() {
+        Instant syncedAt = Instant.now().minus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        Instant since = syncedAt.minus(syncProperties.getCommitOverlap());
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of());
+        // The merged commit was committed before the previous sync but pushed after it
+        stub("/repos/alice/api/commits?per_page=100&since=" + since, 200,
+                "[" + commit("merged", syncedAt.minus(Duration.ofDays(2))) + "," + commit("known", syncedAt.minus(Duration.ofDays(1))) + "]",
+                Map.of());
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of(
+                "pushed_at:api", "2024-02-01T00:00:00Z",
+                "synced_at:api", syncedAt.toString(),
+                "seen:api", "known-sha"));
+
+        assertThat(messages(result, "api")).containsExactly("merged");
+        assertThat(result.replacedCommitLists).isEmpty();
+        assertThat(result.stateUpdates).containsEntry("seen:api", "merged-sha,known-sha");
+        assertThat(result.stateUpdates).containsEntry("pushed_at:api", PUSHED_AT);
+    }
+
+    @Test
+    void onlySeenCommitsInOverlapAreNotActivity() {
+        Instant syncedAt = Instant.now().minus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of());
+        stub("/repos/alice/api/commits?per_page=100&since=" + syncedAt.minus(syncProperties.getCommitOverlap()), 200,
+                "[" + commit("known", syncedAt.minus(Duration.ofDays(1))) + "]", Map.of());
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of(
+                "synced_at:api", syncedAt.toString(), "seen:api", "known-sha", "interval", "600000"));
+
+        assertThat(result.newCommits).isEmpty();
+        assertThat(result.stateUpdates).containsEntry("seen:api", "known-sha");
+        assertThat(result.interval).isEqualTo(1_200_000);
+    }
+
+    @Test
+    void truncatedCommitFetchReplacesList() {
+        syncProperties.setMaxCommitsPerRepo(2);
+        Instant syncedAt = Instant.now().minus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        Instant committedAt = syncedAt.plus(Duration.ofMinutes(30));
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of());
+        stub("/repos/alice/api/commits?per_page=2&since=" + syncedAt.minus(syncProperties.getCommitOverlap()), 200,
+                "[" + commit("c3", committedAt) + "," + commit("c2", committedAt) + "]",
+                Map.of("Link", link("/repos/alice/api/commits?page=2")));
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of("synced_at:api", syncedAt.toString()));
+
+        assertThat(messages(result, "api")).containsExactly("c3", "c2");
+        // More new commits than the list keeps, so the stored list would have a gap below them
+        assertThat(result.replacedCommitLists).containsExactly("api");
+    }
+
+    @Test
+    void unchangedPushedAtSkipsCommitRequests() {
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of("ETag", "\"repos\""));
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of("pushed_at:api", PUSHED_AT));
+
+        assertThat(requestedUris).containsExactly(LISTING);
+        assertThat(result.newCommits).isEmpty();
+        assertThat(result.stateUpdates).containsEntry("repos_etag", "\"repos\"");
+        assertThat(result.interval).isEqualTo(syncProperties.getMinInterval().toMillis() * 2);
+    }
+
+    @Test
+    void notModifiedListingBacksOff() {
+        stub(LISTING, 304, "", Map.of());
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of("repos_etag", "\"repos\"", "interval", "600000"));
+
+        assertThat(ifNoneMatchHeaders).containsExactly("\"repos\"");
+        assertThat(result.repositories).isNull();
+        assertThat(result.stateUpdates).isEmpty();
+        assertThat(result.interval).isEqualTo(1_200_000);
+        assertThat(result.nextSyncAt).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    void repositoriesMissingFromCompleteListingAreRemoved() {
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of());
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice",
+                Map.of("pushed_at:api", PUSHED_AT, "pushed_at:gone", PUSHED_AT));
+
+        assertThat(result.removedRepositories).containsExactly("gone");
+    }
+
+    @Test
+    void truncatedListingRemovesNothing() {
+        syncProperties.setMaxRepoPages(1);
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of("ETag", "\"repos\"", "Link", link("/users/alice/repos?page=2")));
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice",
+                Map.of("pushed_at:api", PUSHED_AT, "pushed_at:gone", PUSHED_AT));
+
+        assertThat(result.removedRepositories).isEmpty();
+        assertThat(result.repositories).hasSize(1);
+    }
+
+    @Test
+    void failingRepositoryIsSkippedAndRetriedLater() {
+        Instant committedAt = Instant.now().minus(Duration.ofDays(1)).truncatedTo(ChronoUnit.SECONDS);
+        stub(LISTING, 200, "[" + repo("broken") + "," + repo("api") + "]", Map.of("ETag", "\"repos\""));
+        stub("/repos/alice/broken/commits?per_page=100", 500, "{}", Map.of());
+        stub("/repos/alice/api/commits?per_page=100", 200, "[" + commit("c1", committedAt) + "]", Map.of());
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of());
+
+        assertThat(messages(result, "api")).containsExactly("c1");
+        assertThat(result.stateUpdates).containsKey("pushed_at:api").doesNotContainKey("pushed_at:broken");
+        // Without the ETag the next listing is fetched in full, so the skipped repository is retried
+        assertThat(result.stateUpdates).doesNotContainKey("repos_etag");
+    }
+
+    @Test
+    void rateLimitPausesUserUntilReset() {
+        long resetAt = Instant.now().plusSeconds(600).getEpochSecond();
+        stub(LISTING, 200, "[" + repo("api") + "]", Map.of("ETag", "\"repos\""));
+        stub("/repos/alice/api/commits?per_page=100", 403, "{}",
+                Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(resetAt)));
+
+        GitHubSyncService.UserSyncResult result = syncService.syncUser("alice", Map.of());
+
+        assertThat(result.nextSyncAt).isEqualTo(resetAt * 1000);
+        assertThat(result.stateUpdates).isEmpty();
+    }
+
+    private static List<String> messages(GitHubSyncService.UserSyncResult result, String repoName) {
+        return result.newCommits.getOrDefault(repoName, List.of()).stream().map(GitHubCommit::getMessage).toList();
+    }
+
+    private void stub(String pathAndQuery, int status, String body, Map<String, String> headers) {
+        responses.put(pathAndQuery, new StubResponse(status, body, headers));
+    }
+
+    private String link(String pathAndQuery) {
+        return "<" + syncProperties.getBaseUrl() + pathAndQuery + ">; rel=\"next\"";
+    }
+
+    private static String repo(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":null,\"pushed_at\":\"" + PUSHED_AT + "\"}";
+    }
+
+    private static String commit(String message, Instant committedAt) {
+        return "{\"sha\":\"" + message + "-sha\",\"author\":{\"login\":\"alice\"},\"commit\":{\"message\":\"" + message + "\","
+                + "\"author\":{\"name\":\"Alice\",\"date\":\"" + committedAt + "\"},"
+                + "\"committer\":{\"name\":\"Alice\",\"date\":\"" + committedAt + "\"}}}";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String uri = exchange.getRequestURI().toString();
+        requestedUris.add(uri);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            ifNoneMatchHeaders.add(ifNoneMatch);
+        }
+
+        StubResponse response = responses.getOrDefault(uri, new StubResponse(404, "{}", Map.of()));
+        response.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
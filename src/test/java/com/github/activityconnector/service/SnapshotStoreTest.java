@@ -0,0 +1,204 @@
+package com.github.activityconnector.service;
+
+import com.github.activityconnector.model.GitHubCommit;
+import com.github.activityconnector.model.GitHubRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round trips the on-disk snapshot format through {@link SnapshotStore.Writer} and a fresh store
+ */
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void publishedSnapshotIsReloadedFromFile() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        SnapshotStore store = new SnapshotStore(path.toString());
+        assertThat(store.isAvailable()).isFalse();
+
+        writeSnapshot(store);
+        assertThat(store.isAvailable()).isTrue();
+
+        assertSnapshotContents(new SnapshotStore(path.toString()));
+        assertThat(Files.exists(directory.resolve("snapshot.bin.tmp"))).isFalse();
+    }
+
+    @Test
+    void publishedSnapshotIsServedWithoutReload() throws IOException {
+        SnapshotStore store = new SnapshotStore(directory.resolve("snapshot.bin").toString());
+        writeSnapshot(store);
+
+        assertSnapshotContents(store);
+    }
+
+    @Test
+    void unpublishedWriterKeepsPreviousSnapshot() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        SnapshotStore store = new SnapshotStore(path.toString());
+        writeSnapshot(store);
+
+        try (SnapshotStore.Writer writer = store.openWriter()) {
+            writer.append("bob", "other-hash", List.of(), Map.of());
+        }
+
+        assertThat(store.getHashedPat("bob")).isNull();
+        assertSnapshotContents(new SnapshotStore(path.toString()));
+    }
+
+    @Test
+    void truncatedSnapshotIsIgnoredAtStartup() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        writeSnapshot(new SnapshotStore(path.toString()));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+
+        SnapshotStore store = new SnapshotStore(path.toString());
+
+        assertThat(store.isAvailable()).isFalse();
+        assertThat(store.getRepositories("alice")).isEmpty();
+    }
+
+    @Test
+    void corruptSnapshotIsIgnoredAtStartup() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        Files.write(path, "definitely not a snapshot file".getBytes());
+
+        SnapshotStore store = new SnapshotStore(path.toString());
+
+        assertThat(store.isAvailable()).isFalse();
+        assertThat(store.getHashedPat("alice")).isNull();
+    }
+
+    @Test
+    void snapshotWithIndexOffsetPastEndIsIgnoredAtStartup() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        writeSnapshot(new SnapshotStore(path.toString()));
+        byte[] bytes = Files.readAllBytes(path);
+        // indexOffset follows magic, version and createdAtMillis
+        Arrays.fill(bytes, 16, 24, (byte) 0x7f);
+        Files.write(path, bytes);
+
+        assertThat(new SnapshotStore(path.toString()).isAvailable()).isFalse();
+    }
+
+    @Test
+    void recordsSpanningSeveralRegionsAreReadBack() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        SnapshotStore store = new SnapshotStore(path.toString(), 16);
+        writeSnapshot(store);
+
+        assertSnapshotContents(store);
+        // The region size comes from the file header, not from the store reading it
+        assertSnapshotContents(new SnapshotStore(path.toString()));
+    }
+
+    @Test
+    void everyUserIsFoundAcrossRegions() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        try (SnapshotStore.Writer writer = new SnapshotStore(path.toString(), 64).openWriter()) {
+            for (int i = 0; i < 300; i++) {
+                GitHubRepository repo = new GitHubRepository();
+                repo.setName("repo-" + i);
+                repo.setDescription("x".repeat(i % 50));
+                repo.setRecentCommits(List.of(new GitHubCommit("commit " + i, "user-" + i, null)));
+                writer.append("user-" + i, "hash-" + i, List.of(repo), Map.of());
+            }
+            writer.publish();
+        }
+
+        SnapshotStore store = new SnapshotStore(path.toString());
+        for (int i = 0; i < 300; i++) {
+            assertThat(store.getHashedPat("user-" + i)).isEqualTo("hash-" + i);
+            assertThat(store.getCommits("user-" + i, "repo-" + i))
+                    .extracting(GitHubCommit::getMessage).containsExactly("commit " + i);
+        }
+    }
+
+    @Test
+    void oversizedRecordFailsDumpAndKeepsPreviousSnapshot() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        writeSnapshot(new SnapshotStore(path.toString()));
+        // Leaves room for records of at most 64 bytes
+        SnapshotStore store = new SnapshotStore(path.toString(), Integer.MAX_VALUE - 64);
+
+        GitHubRepository large = new GitHubRepository();
+        large.setName("large");
+        large.setDescription("x".repeat(100));
+        try (SnapshotStore.Writer writer = store.openWriter()) {
+            assertThatThrownBy(() -> writer.append("bob", "hash", List.of(large), Map.of()))
+                    .isInstanceOf(IOException.class);
+        }
+
+        assertSnapshotContents(store);
+        assertSnapshotContents(new SnapshotStore(path.toString()));
+        assertThat(Files.exists(directory.resolve("snapshot.bin.tmp"))).isFalse();
+    }
+
+    private static void writeSnapshot(SnapshotStore store) throws IOException {
+        GitHubRepository described = new GitHubRepository();
+        described.setName("api");
+        described.setDescription("REST API");
+        described.setRecentCommits(List.of(
+                new GitHubCommit("Fix auth", "alice", LocalDateTime.parse("2024-01-15T10:30:00.123456789")),
+                new GitHubCommit(null, null, null)));
+
+        GitHubRepository bare = new GitHubRepository();
+        bare.setName("notes");
+        bare.setDescription(null);
+        bare.setRecentCommits(null);
+
+        try (SnapshotStore.Writer writer = store.openWriter()) {
+            writer.append("alice", "hash", List.of(described, bare), Map.of("api", 42L));
+            writer.append("carol", null, List.of(), Map.of());
+            writer.publish();
+        }
+    }
+
+    private static void assertSnapshotContents(SnapshotStore store) {
+        assertThat(store.isAvailable()).isTrue();
+        assertThat(store.getCreatedAtMillis()).isPositive();
+        assertThat(store.getHashedPat("alice")).isEqualTo("hash");
+        assertThat(store.getHashedPat("carol")).isNull();
+
+        List<GitHubRepository> repositories = store.getRepositories("alice");
+        assertThat(repositories).extracting(GitHubRepository::getName).containsExactly("api", "notes");
+        assertThat(repositories.get(0).getDescription()).isEqualTo("REST API");
+        assertThat(repositories.get(1).getDescription()).isNull();
+        assertThat(repositories.get(1).getRecentCommits()).isEmpty();
+
+        List<GitHubCommit> commits = store.getCommits("alice", "api");
+        assertThat(commits).hasSize(2);
+        assertThat(commits.get(0).getMessage()).isEqualTo("Fix auth");
+        assertThat(commits.get(0).getAuthor()).isEqualTo("alice");
+        assertThat(commits.get(0).getTimestamp()).isEqualTo(LocalDateTime.parse("2024-01-15T10:30:00.123456789"));
+        assertThat(commits.get(1).getMessage()).isNull();
+        assertThat(commits.get(1).getAuthor()).isNull();
+        assertThat(commits.get(1).getTimestamp()).isNull();
+
+        assertThat(store.getCommitTotal("alice", "api")).isEqualTo(42L);
+        // Without a total from Redis the number of stored commits is used
+        assertThat(store.getCommitTotal("alice", "notes")).isZero();
+        assertThat(store.getCommitTotal("alice", "missing")).isZero();
+        assertThat(store.getCommits("alice", "missing")).isEmpty();
+
+        assertThat(store.getRepositories("unknown")).isEmpty();
+        assertThat(store.getCommits("unknown", "api")).isEmpty();
+        assertThat(store.getCommitTotal("unknown", "api")).isZero();
+        assertThat(store.getHashedPat("unknown")).isNull();
+        assertThat(store.getRepositories("carol")).isEmpty();
+    }
+}